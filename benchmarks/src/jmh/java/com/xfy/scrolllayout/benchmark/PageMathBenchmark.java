@@ -0,0 +1,119 @@
+package com.xfy.scrolllayout.benchmark;
+
+import com.xfy.scrolllayout.FlipProjection;
+import com.xfy.scrolllayout.PageMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PageMath}及{@link FlipProjection}中每帧调用的计算:
+ *      手指抬起时的自由滑动计算(页数、时长)
+ *      动画及拖动中的轮转判断、逻辑位置及可见页计算，轮转本身见{@link RingRotationBenchmark}
+ *      页面变换的进度及透视矩阵计算
+ * 输入为预先生成的随机滚动距离及速度，防止被常量折叠
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PageMathBenchmark {
+    private static final int SAMPLES = 1024;
+    private static final float RESISTANCE = 1;
+    private static final float MIN_SPEED = 1200;
+
+    /**
+     * 页大小，px
+     */
+    @Param({"1080", "1920"})
+    public int pageSize;
+
+    /**
+     * 子控件个数
+     */
+    @Param({"3", "100", "10000"})
+    public int count;
+
+    private int[] scrolls;
+    private float[] velocities;
+    private final float[] matrix = new float[9];
+    private int index;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        scrolls = new int[SAMPLES];
+        velocities = new float[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            scrolls[i] = random.nextInt(pageSize * count);
+            velocities[i] = (random.nextFloat() * 2 - 1) * 20000;
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+
+    @Benchmark
+    public int flingAddCount() {
+        final int i = next();
+        return PageMath.getAddCount(scrolls[i] % pageSize, velocities[i], pageSize, RESISTANCE);
+    }
+
+    @Benchmark
+    public int flingDuration() {
+        final int i = next();
+        final int addCount = PageMath.getAddCount(scrolls[i] % pageSize, velocities[i], pageSize, RESISTANCE);
+        return PageMath.getFlingDuration(addCount * pageSize, velocities[i], MIN_SPEED);
+    }
+
+    @Benchmark
+    public float flingSpeedByAddCount() {
+        return PageMath.getSpeedByAddCount(next() & 7, pageSize, RESISTANCE);
+    }
+
+    @Benchmark
+    public int needAddPreOrNext() {
+        return PageMath.needAddPreOrNext(scrolls[next()], pageSize, count, 0);
+    }
+
+    @Benchmark
+    public int addCurrentIndex() {
+        final int i = next();
+        return PageMath.addCurrentIndex(i % count, count, (i & 1) == 0 ? 1 : -1);
+    }
+
+    @Benchmark
+    public void visiblePages(Blackhole bh) {
+        final int scroll = scrolls[next()];
+        bh.consume(PageMath.firstVisiblePage(scroll, pageSize));
+        bh.consume(PageMath.lastVisiblePage(scroll, pageSize));
+    }
+
+    @Benchmark
+    public float pageOffset() {
+        final int i = next();
+        return PageMath.pageOffset(scrolls[i], i % count, pageSize);
+    }
+
+    @Benchmark
+    public float[] flipProjection() {
+        final int i = next();
+        final float degree = 90 * PageMath.pageOffset(scrolls[i], i % count, pageSize) % 90;
+        if ((i & 1) == 0)
+            FlipProjection.rotateX(degree, pageSize >> 1, pageSize, matrix);
+        else
+            FlipProjection.rotateY(degree, pageSize, pageSize >> 1, matrix);
+        return matrix;
+    }
+}
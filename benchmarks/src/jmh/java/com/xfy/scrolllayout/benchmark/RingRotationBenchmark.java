@@ -0,0 +1,98 @@
+package com.xfy.scrolllayout.benchmark;
+
+import com.xfy.scrolllayout.PageMath;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 动画中每帧的子控件轮转，与ScrollLayout#animateScroll相同:
+ *      滚动一帧的距离，若已接近首尾的子控件，移动{@link #head}把另一端的子控件移过来，
+ *      重新设置被移动子控件的偏移，修正当前页，直到前后都有子控件
+ * 子控件只记录偏移，每次调用为一帧，快速滑动时一帧可轮转多次
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RingRotationBenchmark {
+    private static final int SAMPLES = 1024;
+    /**
+     * 每个方向连续滚动的帧数
+     */
+    private static final int FLING_FRAMES = 64;
+
+    /**
+     * 页大小，px
+     */
+    @Param({"1080", "1920"})
+    public int pageSize;
+
+    /**
+     * 子控件个数，3: 普通模式最少的子控件，4: adapter模式
+     */
+    @Param({"3", "4", "8"})
+    public int count;
+
+    /**
+     * 每帧滚动的距离，正数
+     */
+    private int[] steps;
+    private int index;
+
+    private int[] offsets;
+    private int head;
+    private int firstPage;
+    private int currentIndex;
+    private int scroll;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42);
+        steps = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            //最高约20000px/s，60帧；向前的帧与之前向后的帧距离相同，滚动位置不会持续增长
+            steps[i] = (i & FLING_FRAMES) == 0
+                    ? 1 + random.nextInt(pageSize / 3)
+                    : steps[i & ~FLING_FRAMES];
+        }
+        offsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = i * pageSize;
+        }
+        head = 0;
+        firstPage = 0;
+        currentIndex = 1;
+        scroll = currentIndex * pageSize;
+    }
+
+    @Benchmark
+    public int rotate() {
+        index = (index + 1) & (SAMPLES - 1);
+        final int direction = (index & FLING_FRAMES) == 0 ? 1 : -1;
+        final int c = count;
+        scroll += direction * steps[index];
+        while (PageMath.needAddPreOrNext(scroll - firstPage * pageSize, pageSize, c, direction) == direction) {
+            if (direction == 1) {
+                head = PageMath.rotate(head, 1, c);
+                firstPage ++;
+                offsets[(head + c - 1) % c] = (firstPage + c - 1) * pageSize;
+                currentIndex = PageMath.addCurrentIndex(currentIndex, c, -1);
+            } else {
+                head = PageMath.rotate(head, -1, c);
+                firstPage --;
+                offsets[head] = firstPage * pageSize;
+                currentIndex = PageMath.addCurrentIndex(currentIndex, c, 1);
+            }
+        }
+        return offsets[(head + currentIndex) % c];
+    }
+}
@@ -0,0 +1,90 @@
+package com.xfy.scrolllayout;
+
+/**
+ * 与android.graphics.Camera默认位置(z = -8英寸，即-576)相同的透视投影计算
+ * 不依赖Android，结果按Matrix.setValues(float[])的顺序写入float[9]
+ *
+ * 等价于:
+ * <pre>
+ *     camera.rotateX(degree) / camera.rotateY(degree);
+ *     camera.getMatrix(matrix);
+ *     matrix.preTranslate(-centerX, -centerY);
+ *     matrix.postTranslate(centerX, centerY);
+ * </pre>
+ */
+public final class FlipProjection {
+    /**
+     * android.graphics.Camera默认的相机距离
+     */
+    public static final float CAMERA_DISTANCE = 576;
+
+    private FlipProjection() {
+    }
+
+    /**
+     * 绕X轴旋转
+     * @param degree  角度
+     * @param centerX 旋转中心
+     * @param centerY 旋转中心
+     * @param out     长度至少为9
+     */
+    public static void rotateX(float degree, float centerX, float centerY, float[] out) {
+        final double r = Math.toRadians(degree);
+        rotateX((float) Math.cos(r), (float) Math.sin(r), centerX, centerY, out);
+    }
+
+    /**
+     * 绕X轴旋转
+     * @param cos     角度的cos值
+     * @param sin     角度的sin值
+     * @param centerX 旋转中心
+     * @param centerY 旋转中心
+     * @param out     长度至少为9
+     */
+    public static void rotateX(float cos, float sin, float centerX, float centerY, float[] out) {
+        final float p1 = -sin / CAMERA_DISTANCE;
+        out[0] = 1;
+        out[1] = centerX * p1;
+        out[2] = -centerX * p1 * centerY;
+        out[3] = 0;
+        out[4] = cos + centerY * p1;
+        out[5] = centerY * (1 - cos) - p1 * centerY * centerY;
+        out[6] = 0;
+        out[7] = p1;
+        out[8] = 1 - p1 * centerY;
+    }
+
+    /**
+     * 绕Y轴旋转
+     * @param degree  角度
+     * @param centerX 旋转中心
+     * @param centerY 旋转中心
+     * @param out     长度至少为9
+     */
+    public static void rotateY(float degree, float centerX, float centerY, float[] out) {
+        final double r = Math.toRadians(degree);
+        rotateY((float) Math.cos(r), (float) Math.sin(r), centerX, centerY, out);
+    }
+
+    /**
+     * 绕Y轴旋转
+     * @param cos     角度的cos值
+     * @param sin     角度的sin值
+     * @param centerX 旋转中心
+     * @param centerY 旋转中心
+     * @param out     长度至少为9
+     */
+    public static void rotateY(float cos, float sin, float centerX, float centerY, float[] out) {
+        //Camera.rotateY与rotateX方向相反(Skia中为preRotateY(-degree))，透视项符号也相反
+        final float p0 = sin / CAMERA_DISTANCE;
+        out[0] = cos + centerX * p0;
+        out[1] = 0;
+        out[2] = centerX * (1 - cos) - p0 * centerX * centerX;
+        out[3] = centerY * p0;
+        out[4] = 1;
+        out[5] = -centerY * p0 * centerX;
+        out[6] = p0;
+        out[7] = 0;
+        out[8] = 1 - p0 * centerX;
+    }
+}
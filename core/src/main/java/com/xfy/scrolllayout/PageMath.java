@@ -0,0 +1,190 @@
+package com.xfy.scrolllayout;
+
+/**
+ * ScrollLayout中与View无关的滚动计算，不依赖Android，位于:core模块，可直接在JVM上运行
+ *
+ * 子控件按逻辑位置排列，逻辑位置为i的子控件相对于逻辑位置0的偏移为 i * 页大小，
+ * 方法中的pageScroll均为相对于逻辑位置0的滚动距离
+ */
+public final class PageMath {
+    /**
+     * 自由滑动的摩擦系数，速度按e^(-FLING_FRICTION * t)衰减，滑动距离为 速度 / FLING_FRICTION
+     */
+    public static final float FLING_FRICTION = 4f;
+    /**
+     * 自由滑动时间范围，单位ms
+     */
+    public static final int MIN_FLING_DURATION = 150;
+    public static final int MAX_FLING_DURATION = 800;
+    /**
+     * 距离首尾子控件小于此值时轮转子控件
+     */
+    public static final int MIN_NEED_ADD = 5;
+
+    private PageMath() {
+    }
+
+    /**
+     * 是否需要在最前端或最末尾添加一个view
+     * @param pageScroll 滚动距离
+     * @param pageSize   页大小
+     * @param count      子控件个数
+     * @param state      1 : next, -1 : pre , 0 : all
+     * @return 0: 不添加，1: 在末尾添加，-1: 在前段添加
+     */
+    public static int needAddPreOrNext(int pageScroll, int pageSize, int count, int state) {
+        //next : 0, pre || all: 1
+        final int index = state == 1 ? 0 : 1;
+        //next || all : c - 2, pre : c - 1
+        final int lindex = state == -1 ? count - 1 : count - 2;
+        if (pageScroll < index * pageSize + MIN_NEED_ADD)
+            return -1;
+        else if (pageScroll > lindex * pageSize - MIN_NEED_ADD)
+            return 1;
+        return 0;
+    }
+
+    /**
+     * 轮转num个子控件后，逻辑位置0对应的下标
+     * @param head  当前逻辑位置0对应的下标
+     * @param num   正数: 把前num个移到后面，负数: 把后num个移到前面
+     * @param count 子控件个数
+     * @return [0, count)
+     */
+    public static int rotate(int head, int num, int count) {
+        return ((head + num % count) % count + count) % count;
+    }
+
+    /**
+     * 动画中轮转子控件后当前页的逻辑位置，当前页不能移到首尾
+     * @param currentIndex 当前页逻辑位置
+     * @param count        子控件个数
+     * @param offset       偏移
+     * @return
+     */
+    public static int addCurrentIndex(int currentIndex, int count, int offset) {
+        if ((currentIndex <= 1 && offset < 0) || (currentIndex >= count - 2 && offset > 0))
+            return currentIndex;
+        return (currentIndex + count + offset) % count;
+    }
+
+    /**
+     * 根据速度获取需要滑动多少页，停在离滑动终点最近的页面
+     * @param moved      手指已经向滑动方向移动的距离
+     * @param velocity   速度，px/s
+     * @param pageSize   页大小
+     * @param resistance 阻力
+     * @return 至少为1
+     */
+    public static int getAddCount(int moved, float velocity, int pageSize, float resistance) {
+        if (pageSize <= 0)
+            return 1;
+        final float distance = Math.abs(velocity) / FLING_FRICTION / resistance;
+        final int count = Math.round((moved + distance) / pageSize);
+        return Math.max(count, 1);
+    }
+
+    /**
+     * {@link #getAddCount(int, float, int, float)}的反函数，静止时以此速度滑动将移动addCount页
+     * @param addCount
+     * @param pageSize
+     * @param resistance
+     * @return
+     */
+    public static float getSpeedByAddCount(int addCount, int pageSize, float resistance) {
+        return addCount * Math.max(pageSize, 1) * FLING_FRICTION * resistance;
+    }
+
+    /**
+     * 以velocity的初速度减速滑动delta距离所需的时间
+     * 动画插值为DecelerateInterpolator，初速度为 2 * delta / duration
+     * @param delta    滑动距离
+     * @param velocity 速度，px/s
+     * @param minSpeed 最小速度，px/s
+     * @return [{@link #MIN_FLING_DURATION}, {@link #MAX_FLING_DURATION}]，单位ms
+     */
+    public static int getFlingDuration(int delta, float velocity, float minSpeed) {
+        final float v = Math.max(Math.abs(velocity), minSpeed);
+        final int duration = (int) (2000 * Math.abs(delta) / v);
+        if (duration < MIN_FLING_DURATION)
+            return MIN_FLING_DURATION;
+        if (duration > MAX_FLING_DURATION)
+            return MAX_FLING_DURATION;
+        return duration;
+    }
+
+    /**
+     * 滚动距离下第一个可见子控件的逻辑位置，可能超出子控件范围
+     * @param pageScroll
+     * @param pageSize   大于0
+     * @return
+     */
+    public static int firstVisiblePage(int pageScroll, int pageSize) {
+        return pageScroll >= 0 ? pageScroll / pageSize : (pageScroll - pageSize + 1) / pageSize;
+    }
+
+    /**
+     * 滚动距离下最后一个可见子控件的逻辑位置，可能超出子控件范围
+     * @param pageScroll
+     * @param pageSize   大于0
+     * @return
+     */
+    public static int lastVisiblePage(int pageScroll, int pageSize) {
+        final int first = firstVisiblePage(pageScroll, pageSize);
+        return pageScroll - first * pageSize == 0 ? first : first + 1;
+    }
+
+    /**
+     * 在start处插入count个数据后，原数据位置position的新位置
+     * @param position
+     * @param start
+     * @param count
+     * @return
+     */
+    public static int positionAfterInsert(int position, int start, int count) {
+        return position >= start ? position + count : position;
+    }
+
+    /**
+     * 删除[start, start + count)的数据后，原数据位置position的新位置
+     * @param position
+     * @param start
+     * @param count
+     * @return -1: position的数据被删除
+     */
+    public static int positionAfterRemove(int position, int start, int count) {
+        if (position < start)
+            return position;
+        if (position < start + count)
+            return -1;
+        return position - count;
+    }
+
+    /**
+     * 将from的数据移到to后，原数据位置position的新位置
+     * @param position
+     * @param from
+     * @param to
+     * @return
+     */
+    public static int positionAfterMove(int position, int from, int to) {
+        if (position == from)
+            return to;
+        if (from < to && position > from && position <= to)
+            return position - 1;
+        if (from > to && position >= to && position < from)
+            return position + 1;
+        return position;
+    }
+
+    /**
+     * 页面相对于当前显示位置的偏移
+     * @param scroll   滚动距离
+     * @param page     页面位置
+     * @param pageSize 页大小
+     * @return 0: 正在显示，-1: 在前一页，1: 在后一页
+     */
+    public static float pageOffset(float scroll, int page, int pageSize) {
+        return (page * pageSize - scroll) / pageSize;
+    }
+}
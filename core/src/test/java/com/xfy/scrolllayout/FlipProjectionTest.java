@@ -0,0 +1,80 @@
+package com.xfy.scrolllayout;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 比较{@link FlipProjection}与android.graphics.Camera的结果
+ *
+ * 参考值为以下代码的结果(centerX = 540, centerY = 960):
+ * <pre>
+ *     camera.save();
+ *     camera.rotateX(degree) / camera.rotateY(degree);
+ *     camera.getMatrix(matrix);
+ *     camera.restore();
+ *     matrix.preTranslate(-centerX, -centerY);
+ *     matrix.postTranslate(centerX, centerY);
+ *     matrix.getValues(values);
+ * </pre>
+ * 按Skia中SkCamera3D::patchToMatrix的计算过程(相机位于(0, 0, -576))逐项得出
+ */
+public class FlipProjectionTest {
+    private static final float CENTER_X = 540;
+    private static final float CENTER_Y = 960;
+    private static final float[] DEGREES = {0, 30, -45, 60, 89};
+
+    private static final float[][] CAMERA_ROTATE_X = {
+            {1f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f},
+            {1f, -0.46875f, 450f, 0f, 0.0326920705f, 928.615612f, 0f, -0.000868055556f, 1.83333333f},
+            {1f, 0.662912607f, -636.396103f, 0f, 1.88561808f, -850.19336f, 0f, 0.00122761594f, -0.178511302f},
+            {1f, -0.811898816f, 779.422863f, 0f, -0.943375673f, 1865.64065f, 0f, -0.00150351633f, 2.44337567f},
+            {1f, -0.937357214f, 899.862926f, 0f, -1.64896042f, 2543.002f, 0f, -0.00173584669f, 2.66641283f},
+    };
+
+    private static final float[][] CAMERA_ROTATE_Y = {
+            {1f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f},
+            {1.3347754f, 0f, -180.778718f, 0.833333333f, 1f, -450f, 0.000868055556f, 0f, 0.53125f},
+            {0.0441941738f, 0f, 516.135146f, -1.1785113f, 1f, 636.396103f, -0.00122761594f, 0f, 1.66291261f},
+            {1.31189882f, 0f, -168.425361f, 1.44337567f, 1f, -779.422863f, 0.00150351633f, 0f, 0.188101184f},
+            {0.954809621f, 0f, 24.4028049f, 1.66641283f, 1f, -899.862926f, 0.00173584669f, 0f, 0.0626427858f},
+    };
+
+    @Test
+    public void rotateXMatchesCamera() {
+        final float[] out = new float[9];
+        for (int i = 0; i < DEGREES.length; i++) {
+            FlipProjection.rotateX(DEGREES[i], CENTER_X, CENTER_Y, out);
+            assertMatrix("rotateX(" + DEGREES[i] + ")", CAMERA_ROTATE_X[i], out);
+        }
+    }
+
+    @Test
+    public void rotateYMatchesCamera() {
+        final float[] out = new float[9];
+        for (int i = 0; i < DEGREES.length; i++) {
+            FlipProjection.rotateY(DEGREES[i], CENTER_X, CENTER_Y, out);
+            assertMatrix("rotateY(" + DEGREES[i] + ")", CAMERA_ROTATE_Y[i], out);
+        }
+    }
+
+    /**
+     * 绕Y轴正向旋转时右侧远离相机，x = 2 * centerX处的透视分母应大于1
+     */
+    @Test
+    public void rotateYMovesRightEdgeAway() {
+        final float[] out = new float[9];
+        FlipProjection.rotateY(30, CENTER_X, CENTER_Y, out);
+        final float w = out[6] * CENTER_X * 2 + out[7] * CENTER_Y + out[8];
+        assertTrue(w > 1);
+    }
+
+    private static void assertMatrix(String message, float[] expected, float[] actual) {
+        for (int i = 0; i < 9; i++) {
+            //透视项很小，按大小计算误差
+            final double delta = Math.max(Math.abs(expected[i]), 1e-3) * 1e-4;
+            assertEquals(message + " [" + i + "]", expected[i], actual[i], delta);
+        }
+    }
+}
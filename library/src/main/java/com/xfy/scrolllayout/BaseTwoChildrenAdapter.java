@@ -1,18 +1,40 @@
 package com.xfy.scrolllayout;
 
 import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.LayoutRes;
 import android.support.annotation.NonNull;
+import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ImageView;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
 
 /**
  * 子类只需实现{@link TwoChildrenAdapter#bindViewData(View, View)}
  *
- * @param <V> 类中必须有public并且有且只有{@link Context}参数的构造方法
+ * 克隆方式:
+ *      若通过{@link #setCloneLayout(View, int)}设置了布局，通过布局重新加载
+ *      否则通过{@link Context}参数的构造方法创建，构造方法按类缓存
+ * 克隆后背景及{@link ImageView}的图片通过{@link Drawable.ConstantState}与原控件共享，不重复解码
+ *
+ * @param <V> 未设置布局时，类中必须有public并且有且只有{@link Context}参数的构造方法
  */
 public abstract class BaseTwoChildrenAdapter<V extends View> implements TwoChildrenAdapter<V> {
+    private static final HashMap<Class<?>, Constructor<?>> CONSTRUCTORS = new HashMap<>();
+
+    /**
+     * 记录原控件的布局，克隆时通过布局重新加载
+     * @param original 原控件
+     * @param layout   0: 清除
+     */
+    public static void setCloneLayout(View original, @LayoutRes int layout) {
+        original.setTag(R.id.slt_clone_layout, layout == 0 ? null : layout);
+    }
+
     /**
      * 通过第一个子view克隆一个新的View
      * @param first child in {@link ScrollLayout}
@@ -21,23 +43,7 @@ public abstract class BaseTwoChildrenAdapter<V extends View> implements TwoChild
     @Override
     public @NonNull
     V cloneFirstView(ScrollLayout parent, V first) {
-        Class<V> clz = (Class<V>) first.getClass();
-        try {
-            Constructor<V> c = clz.getConstructor(Context.class);
-            V clone = c.newInstance(parent.getContext());
-            clone.setLayoutParams(first.getLayoutParams());
-            bindViewData(first, clone);
-            return clone;
-        } catch (NoSuchMethodException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (InvocationTargetException e) {
-            e.printStackTrace();
-        }
-        return null;
+        return cloneView(parent, first);
     }
 
     /**
@@ -48,13 +54,39 @@ public abstract class BaseTwoChildrenAdapter<V extends View> implements TwoChild
     @Override
     public @NonNull
     V cloneSecondView(ScrollLayout parent, V second) {
-        Class<V> clz = (Class<V>) second.getClass();
+        return cloneView(parent, second);
+    }
+
+    /**
+     * 创建新的View，复制布局参数、共享图片，并调用{@link #bindViewData(View, View)}
+     * @param parent
+     * @param original
+     * @return null: 无法创建
+     */
+    protected V cloneView(ScrollLayout parent, V original) {
+        final Object layout = original.getTag(R.id.slt_clone_layout);
+        final V clone = layout instanceof Integer
+                ? (V) LayoutInflater.from(parent.getContext()).inflate((Integer) layout, parent, false)
+                : newInstance(parent.getContext(), (Class<V>) original.getClass());
+        if (clone == null)
+            return null;
+        clone.setLayoutParams(copyLayoutParams(original.getLayoutParams()));
+        shareDrawables(original, clone);
+        bindViewData(original, clone);
+        return clone;
+    }
+
+    private static <V> V newInstance(Context context, Class<V> clz) {
         try {
-            Constructor<V> c = clz.getConstructor(Context.class);
-            V clone = c.newInstance(parent.getContext());
-            clone.setLayoutParams(second.getLayoutParams());
-            bindViewData(second, clone);
-            return clone;
+            Constructor<V> c;
+            synchronized (CONSTRUCTORS) {
+                c = (Constructor<V>) CONSTRUCTORS.get(clz);
+                if (c == null) {
+                    c = clz.getConstructor(Context.class);
+                    CONSTRUCTORS.put(clz, c);
+                }
+            }
+            return c.newInstance(context);
         } catch (NoSuchMethodException e) {
             e.printStackTrace();
         } catch (IllegalAccessException e) {
@@ -66,4 +98,52 @@ public abstract class BaseTwoChildrenAdapter<V extends View> implements TwoChild
         }
         return null;
     }
+
+    /**
+     * 克隆的控件使用单独的布局参数，{@link ScrollLayout.LayoutParams}中记录了每个子控件的测量状态
+     */
+    private static ViewGroup.LayoutParams copyLayoutParams(ViewGroup.LayoutParams p) {
+        if (p == null)
+            return null;
+        if (p instanceof ViewGroup.MarginLayoutParams)
+            return new ScrollLayout.LayoutParams((ViewGroup.MarginLayoutParams) p);
+        return new ScrollLayout.LayoutParams(p);
+    }
+
+    /**
+     * 结构相同时，递归共享背景及{@link ImageView}的图片
+     * @param res
+     * @param clone
+     */
+    private static void shareDrawables(View res, View clone) {
+        final Drawable background = newDrawable(res.getBackground(), clone);
+        if (background != null)
+            clone.setBackground(background);
+        if (res instanceof ImageView && clone instanceof ImageView) {
+            final Drawable drawable = newDrawable(((ImageView) res).getDrawable(), clone);
+            if (drawable != null)
+                ((ImageView) clone).setImageDrawable(drawable);
+        }
+        if (res instanceof ViewGroup && clone instanceof ViewGroup) {
+            final ViewGroup rg = (ViewGroup) res;
+            final ViewGroup cg = (ViewGroup) clone;
+            final int c = rg.getChildCount();
+            if (c != cg.getChildCount())
+                return;
+            for (int i = 0; i < c; i++) {
+                shareDrawables(rg.getChildAt(i), cg.getChildAt(i));
+            }
+        }
+    }
+
+    /**
+     * 通过{@link Drawable.ConstantState}创建共享图片数据的Drawable
+     * @return null: 不能共享
+     */
+    private static Drawable newDrawable(Drawable d, View clone) {
+        if (d == null)
+            return null;
+        final Drawable.ConstantState state = d.getConstantState();
+        return state != null ? state.newDrawable(clone.getResources()) : null;
+    }
 }
@@ -0,0 +1,157 @@
+package com.xfy.scrolllayout;
+
+import android.content.Context;
+import android.util.AttributeSet;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+
+/**
+ * 根据xml中设置的类名创建{@link TwoChildrenAdapter}、{@link IDrawChildren}、{@link PageTransformer}
+ *
+ * 通过{@link #register(String, Factory)}注册的类直接调用{@link Factory}创建，不使用反射，
+ * 混淆时也不需要keep这些类；未注册的类通过反射创建，构造方法在进程内缓存
+ * 库中自带的实现已注册
+ *
+ * 可在Application中注册:
+ * <pre>
+ *     FactoryRegistry.register("com.xfy.sample.TestDrawChildren", new FactoryRegistry.Factory&lt;TestDrawChildren&gt;() {
+ *         public TestDrawChildren create(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+ *             return new TestDrawChildren(context, attrs, defStyleAttr, defStyleRes);
+ *         }
+ *     });
+ * </pre>
+ */
+public final class FactoryRegistry {
+    /**
+     * 创建实例
+     * @param <T>
+     */
+    public interface Factory<T> {
+        /**
+         * @param context       {@link ScrollLayout}的参数
+         * @param attrs         {@link ScrollLayout}的参数，可能为null
+         * @param defStyleAttr  {@link ScrollLayout}的参数
+         * @param defStyleRes   {@link ScrollLayout}的参数
+         * @return not null
+         */
+        T create(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes);
+    }
+
+    private static final HashMap<String, Factory<?>> FACTORIES = new HashMap<>();
+    /**
+     * 未注册的类的构造方法，(Context, AttributeSet, int, int)或无参构造方法
+     */
+    private static final HashMap<String, Constructor<?>> CONSTRUCTORS = new HashMap<>();
+
+    //xml中写的是原类名，混淆后X.class.getName()会变为混淆后的名字，必须使用字符串常量
+    static {
+        register("com.xfy.scrolllayout.FlipLikeRotateBox", new Factory<FlipLikeRotateBox>() {
+            @Override
+            public FlipLikeRotateBox create(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+                return new FlipLikeRotateBox(context, attrs, defStyleAttr, defStyleRes);
+            }
+        });
+        register("com.xfy.scrolllayout.FadeDrawChildren", new Factory<FadeDrawChildren>() {
+            @Override
+            public FadeDrawChildren create(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+                return new FadeDrawChildren(context, attrs, defStyleAttr, defStyleRes);
+            }
+        });
+        register("com.xfy.scrolllayout.FlipPageTransformer", new Factory<FlipPageTransformer>() {
+            @Override
+            public FlipPageTransformer create(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+                return new FlipPageTransformer(context, attrs, defStyleAttr, defStyleRes);
+            }
+        });
+        register("com.xfy.scrolllayout.FadePageTransformer", new Factory<FadePageTransformer>() {
+            @Override
+            public FadePageTransformer create(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+                return new FadePageTransformer(context, attrs, defStyleAttr, defStyleRes);
+            }
+        });
+    }
+
+    private FactoryRegistry() {
+    }
+
+    /**
+     * 注册类名对应的{@link Factory}
+     * @param className 类全名
+     * @param factory   null: 取消注册
+     */
+    public static void register(String className, Factory<?> factory) {
+        synchronized (FACTORIES) {
+            if (factory == null)
+                FACTORIES.remove(className);
+            else
+                FACTORIES.put(className, factory);
+        }
+    }
+
+    /**
+     * 创建className的实例
+     * @param type      需要的类型
+     * @param className 类全名
+     * @return not null
+     * @throws IllegalArgumentException 找不到类、不是type类型或无法创建时
+     */
+    static <T> T create(Class<T> type, String className,
+                        Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        final Factory<?> factory;
+        synchronized (FACTORIES) {
+            factory = FACTORIES.get(className);
+        }
+        final Object instance = factory != null
+                ? factory.create(context, attrs, defStyleAttr, defStyleRes)
+                : newInstance(className, context, attrs, defStyleAttr, defStyleRes);
+        if (!type.isInstance(instance))
+            throw new IllegalArgumentException(className + " is not a " + type.getName() + ".");
+        return type.cast(instance);
+    }
+
+    private static Object newInstance(String className,
+                                      Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        final Constructor<?> constructor = getConstructor(className);
+        try {
+            if (constructor.getParameterTypes().length == 0)
+                return constructor.newInstance();
+            return constructor.newInstance(context, attrs, defStyleAttr, defStyleRes);
+        } catch (InstantiationException e) {
+            throw new IllegalArgumentException("cannot create " + className + ".", e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("cannot create " + className + ".", e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException("cannot create " + className + ".", e.getCause());
+        }
+    }
+
+    private static Constructor<?> getConstructor(String className) {
+        synchronized (CONSTRUCTORS) {
+            Constructor<?> constructor = CONSTRUCTORS.get(className);
+            if (constructor != null)
+                return constructor;
+            final Class<?> clz;
+            try {
+                clz = Class.forName(className);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("cannot find " + className + ".", e);
+            }
+            try {
+                constructor = clz.getConstructor(Context.class, AttributeSet.class, int.class, int.class);
+            } catch (NoSuchMethodException e) {
+                try {
+                    constructor = clz.getConstructor();
+                } catch (NoSuchMethodException e1) {
+                    throw new IllegalArgumentException("cannot create " + className + ". " +
+                            "class must have a public default constructor, or public constructor with (" +
+                            Context.class.getName() + ", " + AttributeSet.class.getName() + ", " +
+                            int.class.getName() + ", " + int.class.getName() + ").", e1);
+                }
+            }
+            CONSTRUCTORS.put(className, constructor);
+            return constructor;
+        }
+    }
+}
@@ -62,7 +62,7 @@ public class FadeDrawChildren implements IDrawChildren {
                 if (curScreenY < scrollY - mHeight) {
                     return;
                 }
-                percent = 1 - Math.abs(scrollY - curScreenY) / mHeight;
+                percent = 1 - Math.abs(PageMath.pageOffset(scrollY, index, mHeight));
                 break;
             case HORIZONTAL:
                 final int curScreenX = mWidth * index;
@@ -73,7 +73,7 @@ public class FadeDrawChildren implements IDrawChildren {
                 if (curScreenX < scrollX - mWidth) {
                     return;
                 }
-                percent = 1 - Math.abs(scrollX - curScreenX) / mWidth;
+                percent = 1 - Math.abs(PageMath.pageOffset(scrollX, index, mWidth));
                 break;
         }
         if (percent < 0)
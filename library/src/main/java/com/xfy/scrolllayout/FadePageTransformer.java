@@ -0,0 +1,58 @@
+package com.xfy.scrolllayout;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * {@link FadeDrawChildren}的{@link PageTransformer}实现
+ * 简单的透明度变换，可同时缩放
+ */
+public class FadePageTransformer implements PageTransformer {
+
+    private float minAlpha = 0;
+    private float minScale = 1;
+
+    public FadePageTransformer() {
+    }
+
+    public FadePageTransformer(float minAlpha, float minScale) {
+        this.minAlpha = minAlpha;
+        this.minScale = minScale;
+    }
+
+    public FadePageTransformer(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        if (context != null && attrs != null) {
+            final Resources.Theme theme = context.getTheme();
+            TypedArray a = theme.obtainStyledAttributes(attrs,
+                    R.styleable.FadeDrawChildren, defStyleAttr, defStyleRes);
+            initStyle(a);
+        }
+    }
+
+    private void initStyle(TypedArray a) {
+        if (a != null) {
+            minAlpha = a.getFloat(R.styleable.FadeDrawChildren_fdc_min_alpha, minAlpha);
+            a.recycle();
+        }
+    }
+
+    @Override
+    public void transformPage(ScrollLayout parent, View page,
+                              @ScrollLayout.ScrollOrientation int scrollOrientation,
+                              float position) {
+        float percent = 1 - Math.abs(position);
+        if (percent < 0)
+            percent = 0;
+        if (percent > 1)
+            percent = 1;
+        page.setAlpha((1f - minAlpha) * percent + minAlpha);
+        if (minScale != 1) {
+            final float scale = (1f - minScale) * percent + minScale;
+            page.setScaleX(scale);
+            page.setScaleY(scale);
+        }
+    }
+}
@@ -3,7 +3,6 @@ package com.xfy.scrolllayout;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
-import android.graphics.Camera;
 import android.graphics.Canvas;
 import android.graphics.Matrix;
 import android.util.AttributeSet;
@@ -12,13 +11,21 @@ import android.view.View;
 /**
  * 默认3d变换
  * 像在翻一个箱子
+ * 透视矩阵由{@link FlipProjection}计算，不使用{@link android.graphics.Camera}
  */
 public class FlipLikeRotateBox implements IDrawChildren {
     private float eachDegree = 90;
     private int mWidth;
     private int mHeight;
-    private Camera mCamera;
     private Matrix matrix;
+    private final float[] values = new float[9];
+
+    /**
+     * 角度缓存，{@link #angleCacheStep} > 0时有效
+     */
+    private float angleCacheStep = 0;
+    private float[] cosCache;
+    private float[] sinCache;
 
     public FlipLikeRotateBox(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         if (context != null && attrs != null) {
@@ -45,10 +52,68 @@ public class FlipLikeRotateBox implements IDrawChildren {
     }
 
     private void init() {
-        mCamera = new Camera();
         matrix = new Matrix();
     }
 
+    /**
+     * 设置角度缓存精度，角度将按step取整，并缓存对应的sin、cos值
+     * 回位等较慢的动画中，相邻帧的角度相差很小，可减少三角函数计算
+     * @param step 单位度，0: 不缓存
+     */
+    public void setAngleCacheStep(float step) {
+        if (step < 0)
+            throw new IllegalArgumentException("step must be equals or greater than 0.");
+        angleCacheStep = step;
+        if (step == 0) {
+            cosCache = null;
+            sinCache = null;
+            return;
+        }
+        final int half = (int) Math.ceil(90 / step);
+        final int l = half * 2 + 1;
+        cosCache = new float[l];
+        sinCache = new float[l];
+        for (int i = 0; i < l; i++) {
+            final double r = Math.toRadians((i - half) * step);
+            cosCache[i] = (float) Math.cos(r);
+            sinCache[i] = (float) Math.sin(r);
+        }
+    }
+
+    public float getAngleCacheStep() {
+        return angleCacheStep;
+    }
+
+    /**
+     * 计算旋转矩阵并写入{@link #matrix}
+     * @param degree [-90, 90]
+     * @param rotateX true: 绕X轴旋转，false: 绕Y轴旋转
+     */
+    private void computeMatrix(float degree, boolean rotateX, float centerX, float centerY) {
+        final float cos;
+        final float sin;
+        if (cosCache != null) {
+            final int half = cosCache.length >> 1;
+            int i = Math.round(degree / angleCacheStep) + half;
+            if (i < 0)
+                i = 0;
+            else if (i >= cosCache.length)
+                i = cosCache.length - 1;
+            cos = cosCache[i];
+            sin = sinCache[i];
+        } else {
+            final double r = Math.toRadians(degree);
+            cos = (float) Math.cos(r);
+            sin = (float) Math.sin(r);
+        }
+        if (rotateX) {
+            FlipProjection.rotateX(cos, sin, centerX, centerY, values);
+        } else {
+            FlipProjection.rotateY(cos, sin, centerX, centerY, values);
+        }
+        matrix.setValues(values);
+    }
+
     private void checkDegree() {
         if (eachDegree <= 0 || eachDegree >= 180)
             throw new IllegalArgumentException("degree must be greater than 0 and less than 180.");
@@ -83,19 +148,12 @@ public class FlipLikeRotateBox implements IDrawChildren {
                 centerY = (scrollY > curScreenY) ? curScreenY + mHeight : curScreenY;
                 centerX += parent.getPaddingLeft();
                 centerY += parent.getPaddingTop();
-                degree = eachDegree * (scrollY - curScreenY) / mHeight;
+                degree = -eachDegree * PageMath.pageOffset(scrollY, index, mHeight);
                 if (degree > 90 || degree < -90) {
                     return;
                 }
                 canvas.save();
-                mCamera.save();
-                matrix.reset();
-                mCamera.rotateX(degree);
-                mCamera.getMatrix(matrix);
-                mCamera.restore();
-
-                matrix.preTranslate(-centerX, -centerY);
-                matrix.postTranslate(centerX, centerY);
+                computeMatrix(degree, true, centerX, centerY);
                 canvas.concat(matrix);
 
                 parent.drawChild(canvas, child, drawingTime);
@@ -112,21 +170,14 @@ public class FlipLikeRotateBox implements IDrawChildren {
                 centerY = mHeight / 2;
                 centerX += parent.getPaddingLeft();
                 centerY += parent.getPaddingTop();
-                degree = eachDegree * (scrollX - curScreenX) / mWidth;
+                degree = -eachDegree * PageMath.pageOffset(scrollX, index, mWidth);
 
                 if (degree > 90 || degree < -90) {
                     return;
                 }
 
                 canvas.save();
-                mCamera.save();
-                matrix.reset();
-                mCamera.rotateY(-degree);
-                mCamera.getMatrix(matrix);
-                mCamera.restore();
-
-                matrix.preTranslate(-centerX, -centerY);
-                matrix.postTranslate(centerX, centerY);
+                computeMatrix(-degree, false, centerX, centerY);
                 canvas.concat(matrix);
 
                 parent.drawChild(canvas, child, drawingTime);
@@ -0,0 +1,83 @@
+package com.xfy.scrolllayout;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.util.AttributeSet;
+import android.view.View;
+
+/**
+ * {@link FlipLikeRotateBox}的{@link PageTransformer}实现
+ * 像在翻一个箱子，使用{@link View#setRotationX(float)}/{@link View#setRotationY(float)}以子控件边缘为轴旋转
+ */
+public class FlipPageTransformer implements PageTransformer {
+    /**
+     * 默认相机距离，单位dp
+     */
+    private static final float DEFAULT_CAMERA_DISTANCE = 1280;
+
+    private float eachDegree = 90;
+    private float cameraDistance = DEFAULT_CAMERA_DISTANCE;
+
+    public FlipPageTransformer(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        if (context != null && attrs != null) {
+            final Resources.Theme theme = context.getTheme();
+            TypedArray a = theme.obtainStyledAttributes(attrs,
+                                                        R.styleable.FlipLikeRotateBoxAttr, defStyleAttr, defStyleRes);
+            initStyle(a);
+        }
+        checkDegree();
+    }
+
+    private void initStyle(TypedArray a) {
+        if (a != null) {
+            eachDegree = a.getFloat(R.styleable.FlipLikeRotateBoxAttr_flrb_each_degree, eachDegree);
+            a.recycle();
+        }
+    }
+
+    public FlipPageTransformer(float eachDegree) {
+        this.eachDegree = eachDegree;
+        checkDegree();
+    }
+
+    private void checkDegree() {
+        if (eachDegree <= 0 || eachDegree >= 180)
+            throw new IllegalArgumentException("degree must be greater than 0 and less than 180.");
+    }
+
+    /**
+     * 设置相机距离，越大透视效果越弱
+     * @param cameraDistance 单位dp
+     */
+    public void setCameraDistance(float cameraDistance) {
+        if (cameraDistance <= 0)
+            throw new IllegalArgumentException("camera distance must be greater than 0.");
+        this.cameraDistance = cameraDistance;
+    }
+
+    @Override
+    public void transformPage(ScrollLayout parent, View page,
+                              @ScrollLayout.ScrollOrientation int scrollOrientation,
+                              float position) {
+        final float degree = -eachDegree * position;
+        if (position <= -1 || position >= 1 || degree > 90 || degree < -90) {
+            page.setAlpha(0);
+            return;
+        }
+        page.setAlpha(1);
+        page.setCameraDistance(cameraDistance * page.getResources().getDisplayMetrics().density);
+        switch (scrollOrientation) {
+            case ScrollLayout.VERTICAL:
+                page.setPivotX(page.getWidth() / 2f);
+                page.setPivotY(position < 0 ? page.getHeight() : 0);
+                page.setRotationX(degree);
+                break;
+            case ScrollLayout.HORIZONTAL:
+                page.setPivotX(position < 0 ? page.getWidth() : 0);
+                page.setPivotY(page.getHeight() / 2f);
+                page.setRotationY(-degree);
+                break;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.xfy.scrolllayout;
+
+import android.view.Choreographer;
+
+/**
+ * {@link ScrollLayout}的帧调度
+ * 默认由{@link Choreographer}及{@link android.view.View#post(Runnable)}实现，
+ * 测试及手势回放时替换为手动推进的实现，控制每帧的时间，且不经过系统的消息队列
+ * {@link ScrollLayout#setFrameScheduler(FrameScheduler)}
+ */
+interface FrameScheduler {
+    /**
+     * 在下一帧的动画阶段执行
+     * @param callback
+     */
+    void postFrameCallback(Choreographer.FrameCallback callback);
+
+    void removeFrameCallback(Choreographer.FrameCallback callback);
+
+    /**
+     * 在本帧绘制完成后的空闲时间执行
+     * @param action
+     */
+    void postIdle(Runnable action);
+
+    void removeIdle(Runnable action);
+}
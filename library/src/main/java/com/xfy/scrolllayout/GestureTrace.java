@@ -0,0 +1,207 @@
+package com.xfy.scrolllayout;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 记录及回放单指手势(DOWN/MOVE/UP/CANCEL，包括历史采样点)
+ * 可通过{@link ScrollLayout#setGestureTrace(GestureTrace)}在真机上记录，保存为二进制文件，
+ * 再用{@link #replay(View, Clock)}回放，配合{@link ScrollLayout.MetricsListener}比较不同版本的滑动表现
+ *
+ * 文件格式(大端):
+ * <pre>
+ *     int   MAGIC
+ *     short VERSION
+ *     int   事件个数
+ *     事件: byte action, short 采样点个数, 采样点: int 相对第一个事件的时间(ms), float x, float y
+ * </pre>
+ */
+public final class GestureTrace {
+    private static final int MAGIC = 0x534C4754;
+    private static final short VERSION = 1;
+
+    private byte[] actions = new byte[16];
+    /**
+     * 每个事件第一个采样点在{@link #times}中的下标，长度为事件个数 + 1
+     */
+    private int[] sampleStarts = new int[17];
+    private int[] times = new int[64];
+    private float[] xs = new float[64];
+    private float[] ys = new float[64];
+    private int eventCount;
+    private int sampleCount;
+    private long startTime = -1;
+
+    /**
+     * 回放使用的时钟，时间与{@link MotionEvent#getEventTime()}相同，单位ms
+     */
+    public interface Clock {
+        long uptimeMillis();
+
+        /**
+         * 等到time时返回，期间需执行到期的帧(如手动推进测试中的动画时钟)
+         * @param time {@link #uptimeMillis()}
+         */
+        void advanceTo(long time);
+    }
+
+    /**
+     * 不等待，所有事件在一次调用中依次分发
+     */
+    private static final Clock IMMEDIATE = new Clock() {
+        @Override
+        public long uptimeMillis() {
+            return SystemClock.uptimeMillis();
+        }
+
+        @Override
+        public void advanceTo(long time) {
+        }
+    };
+
+    /**
+     * 记录事件，只记录第一个手指，忽略多指事件
+     * @param event
+     */
+    public void add(MotionEvent event) {
+        final int action = event.getActionMasked();
+        if (action != MotionEvent.ACTION_DOWN && action != MotionEvent.ACTION_MOVE
+                && action != MotionEvent.ACTION_UP && action != MotionEvent.ACTION_CANCEL)
+            return;
+        if (startTime < 0)
+            startTime = event.getEventTime();
+        final int history = event.getHistorySize();
+        ensureCapacity(eventCount + 1, sampleCount + history + 1);
+        for (int h = 0; h < history; h++) {
+            addSample(event.getHistoricalEventTime(h), event.getHistoricalX(h), event.getHistoricalY(h));
+        }
+        addSample(event.getEventTime(), event.getX(), event.getY());
+        actions[eventCount++] = (byte) action;
+        sampleStarts[eventCount] = sampleCount;
+    }
+
+    private void addSample(long time, float x, float y) {
+        times[sampleCount] = (int) (time - startTime);
+        xs[sampleCount] = x;
+        ys[sampleCount] = y;
+        sampleCount++;
+    }
+
+    private void ensureCapacity(int events, int samples) {
+        if (events > actions.length) {
+            final int l = Math.max(events, actions.length << 1);
+            actions = Arrays.copyOf(actions, l);
+            sampleStarts = Arrays.copyOf(sampleStarts, l + 1);
+        }
+        if (samples > times.length) {
+            final int l = Math.max(samples, times.length << 1);
+            times = Arrays.copyOf(times, l);
+            xs = Arrays.copyOf(xs, l);
+            ys = Arrays.copyOf(ys, l);
+        }
+    }
+
+    /**
+     * @return 记录的事件个数
+     */
+    public int size() {
+        return eventCount;
+    }
+
+    public void clear() {
+        eventCount = 0;
+        sampleCount = 0;
+        startTime = -1;
+    }
+
+    /**
+     * 在一次调用中依次调用target.dispatchTouchEvent，不等待记录的时间间隔，
+     * 事件时间仍按记录的间隔设置，期间不会执行任何帧，手指抬起后的动画在之后的帧中执行
+     * @param target 一般为{@link ScrollLayout}
+     * @return 每个事件分发所用的时间，单位ns
+     */
+    public long[] replay(View target) {
+        return replay(target, IMMEDIATE);
+    }
+
+    /**
+     * 从clock的当前时间开始，每个事件分发前通过{@link Clock#advanceTo(long)}等到记录的时间
+     * 事件之间的帧由clock执行
+     * @param target 一般为{@link ScrollLayout}
+     * @param clock
+     * @return 每个事件分发所用的时间，单位ns
+     */
+    public long[] replay(View target, Clock clock) {
+        final long[] nanos = new long[eventCount];
+        final long base = clock.uptimeMillis();
+        long downTime = base;
+        for (int i = 0; i < eventCount; i++) {
+            final int action = actions[i];
+            final int from = sampleStarts[i];
+            final int to = sampleStarts[i + 1];
+            if (action == MotionEvent.ACTION_DOWN)
+                downTime = base + times[to - 1];
+            clock.advanceTo(base + times[to - 1]);
+            final MotionEvent event = MotionEvent.obtain(downTime, base + times[from], action,
+                                                         xs[from], ys[from], 0);
+            for (int s = from + 1; s < to; s++) {
+                event.addBatch(base + times[s], xs[s], ys[s], 1, 1, 0);
+            }
+            final long start = System.nanoTime();
+            target.dispatchTouchEvent(event);
+            nanos[i] = System.nanoTime() - start;
+            event.recycle();
+        }
+        return nanos;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        final DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(MAGIC);
+        dos.writeShort(VERSION);
+        dos.writeInt(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            final int from = sampleStarts[i];
+            final int to = sampleStarts[i + 1];
+            dos.writeByte(actions[i]);
+            dos.writeShort(to - from);
+            for (int s = from; s < to; s++) {
+                dos.writeInt(times[s]);
+                dos.writeFloat(xs[s]);
+                dos.writeFloat(ys[s]);
+            }
+        }
+        dos.flush();
+    }
+
+    public static GestureTrace read(InputStream in) throws IOException {
+        final DataInputStream dis = new DataInputStream(in);
+        if (dis.readInt() != MAGIC)
+            throw new IOException("not a gesture trace.");
+        final short version = dis.readShort();
+        if (version != VERSION)
+            throw new IOException("unsupported gesture trace version: " + version);
+        final int count = dis.readInt();
+        final GestureTrace trace = new GestureTrace();
+        trace.startTime = 0;
+        for (int i = 0; i < count; i++) {
+            final byte action = dis.readByte();
+            final int samples = dis.readShort();
+            trace.ensureCapacity(trace.eventCount + 1, trace.sampleCount + samples);
+            for (int s = 0; s < samples; s++) {
+                trace.addSample(dis.readInt(), dis.readFloat(), dis.readFloat());
+            }
+            trace.actions[trace.eventCount++] = action;
+            trace.sampleStarts[trace.eventCount] = trace.sampleCount;
+        }
+        return trace;
+    }
+}
@@ -0,0 +1,19 @@
+package com.xfy.scrolllayout;
+
+import android.view.View;
+
+/**
+ * 滚动动画时，决定哪些子控件使用{@link View#LAYER_TYPE_HARDWARE}
+ * {@link ScrollLayout#setUseHardwareLayer(boolean)} must true
+ */
+public interface HardwareLayerPolicy {
+    /**
+     * 手势或动画开始时调用
+     * 内容复杂(列表、大量文字、图片等)的子控件适合使用硬件层，
+     * 内容在动画中会变化的子控件不适合
+     * @param parent    {@link ScrollLayout}
+     * @param page      当前页或相邻页
+     * @return true: 动画期间使用硬件层
+     */
+    boolean shouldUseHardwareLayer(ScrollLayout parent, View page);
+}
@@ -14,7 +14,7 @@ public interface IDrawChildren {
      * @param child     需要绘制的View
      * @param canvas    未经处理
      * @param scrollOrientation {@link ScrollLayout#scrollOrientation}
-     * @param index     child在{@link ScrollLayout#children}中的位置
+     * @param index     child所在的页，child的translation为index * 页大小，与{@link ScrollLayout#getScrollY()}或{@link ScrollLayout#getScrollX()}比较可得到滚动进度
      * @param drawingTime   use in {@link android.view.ViewGroup#drawChild(Canvas, View, long)}
      */
     void drawChild(ScrollLayout parent, View child, Canvas canvas, @ScrollLayout.ScrollOrientation int scrollOrientation, int index, long drawingTime);
@@ -0,0 +1,20 @@
+package com.xfy.scrolllayout;
+
+import android.view.View;
+
+/**
+ * 通过View属性(rotationX/Y, pivot, cameraDistance, alpha, scale)实现切换动画的接口
+ * 与{@link IDrawChildren}不同，不需要在{@link ScrollLayout#dispatchDraw(android.graphics.Canvas)}中变换画布，
+ * 动画期间只修改子控件的属性，父控件的绘制内容不变
+ * 设置后{@link IDrawChildren}不再生效
+ */
+public interface PageTransformer {
+    /**
+     * 滚动位置变化时，对当前显示的子控件及其前后的子控件调用
+     * @param parent    {@link ScrollLayout}
+     * @param page      需要变换的子控件
+     * @param scrollOrientation {@link ScrollLayout#scrollOrientation}
+     * @param position  子控件相对当前显示位置的页数，0: 完全显示，-1: 前一页，1: 后一页
+     */
+    void transformPage(ScrollLayout parent, View page, @ScrollLayout.ScrollOrientation int scrollOrientation, float position);
+}
@@ -4,24 +4,37 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
 import android.os.Build;
 import android.support.annotation.IntDef;
 import android.support.annotation.IntRange;
+import android.support.v4.view.AsyncLayoutInflater;
 import android.text.TextUtils;
 import android.util.AttributeSet;
+import android.util.LruCache;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.Choreographer;
+import android.view.Display;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
+import android.view.ViewStub;
 import android.view.animation.DecelerateInterpolator;
 import android.widget.Scroller;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 
 /**
  * Created by XiongFangyu on 17/1/10.
@@ -31,10 +44,13 @@ import java.lang.reflect.InvocationTargetException;
  *
  * 注意：
  *      子控件比如大于1个
- *      子控件若只有两个，必须添加属性'flt_two_children_adapter="你的{@link TwoChildrenAdapter}类名(规则参考{@link #fillPackageName(String)})"'，
- *      若修改其中一个子View，必须调用{@link #notifyViewChanged(View)}
+ *      子控件若只有两个，可添加属性'flt_two_children_adapter="你的{@link TwoChildrenAdapter}类名(规则参考{@link #fillPackageName(String)})"'复制子控件，
+ *      若修改其中一个子View，必须调用{@link #notifyViewChanged(View)}；
+ *      不设置时不复制子控件，循环到的位置直接显示原子控件
  *      若通过{@link #addView(View)}添加子控件，添加完所有子控件后，必须调用{@link #notifyAddChildViewFinish()}刷新布局
  *      可添加属性'slt_draw_children_interface="{@link IDrawChildren}类名"'来实现切换动画
+ *      页面较多时可通过{@link #setAdapter(Adapter)}使用{@link Adapter}模式，只创建{@link #ADAPTER_PAGE_COUNT}个子控件并循环复用
+ *      子控件可使用{@link ViewStub}，滚动到相邻页时才在后台线程加载(两个子控件时除外)
  * <p>
  * <b>XML attributes</b>
  * <p>
@@ -47,6 +63,8 @@ import java.lang.reflect.InvocationTargetException;
  *     slt_can_scroll_by_touch      是否能用手指滚动，默认true {@link #setCanScrollByTouch(boolean)}
  *     slt_scroll_orientation       滚动方向 {@link #VERTICAL} {@link #HORIZONTAL}
  *     slt_draw_children_interface  滚动时3D动画实现，默认为{@link FlipLikeRotateBox} 设置规则参考{@link #fillPackageName(String)}
+ *     slt_page_transformer         通过View属性实现的切换动画{@link PageTransformer}，设置后slt_draw_children_interface不再生效 设置规则参考{@link #fillPackageName(String)}
+ *     slt_hardware_layer           滚动时子控件是否使用硬件层，默认false {@link #setUseHardwareLayer(boolean)}
  */
 public class ScrollLayout extends ViewGroup {
     private static final String TAG = "ScrollLayout---xfy---";
@@ -59,23 +77,103 @@ public class ScrollLayout extends ViewGroup {
      */
     public static final int HORIZONTAL = 1;
 
-    private static final int MAX_SPEED = 2000;
-    private static final int MIN_SPEED = 800;
-    private static final int MIN_NEED_ADD = 5;
+    /**
+     * 超过此速度时切换页面，单位dp/s
+     */
+    private static final int MAX_SPEED = 670;
+    /**
+     * 计算动画时间时的最小速度，单位dp/s
+     */
+    private static final int MIN_SPEED = 270;
+    /**
+     * 动画速度超过此值时使用截图绘制子控件，单位dp/s
+     */
+    private static final int SNAPSHOT_SPEED = 2000;
+    /**
+     * {@link #firstPage}超出此值时，停止滚动后重新计算所有子控件位置，防止滚动距离溢出
+     */
+    private static final int MAX_FIRST_PAGE = 1 << 10;
+
+    /**
+     * 镜像模式下的逻辑位置个数
+     */
+    private static final int MIRROR_PAGE_COUNT = 4;
 
     private static final int STATE_NOMARL = 0;
     private static final int STATE_PRE = -1;
     private static final int STATE_NEXT = 1;
 
+    /**
+     * {@link Adapter}模式下实际创建的子控件个数：当前页及前后相邻的页
+     */
+    public static final int ADAPTER_PAGE_COUNT = 4;
+    /**
+     * 没有数据id，见{@link #getCurrentItemId()}
+     */
+    public static final long NO_ITEM_ID = -1;
+    private static final int INVALID_VIEW_TYPE = -1;
+
     private int mWidth;
     private int mHeight;
     private int childWdith;
     private int childHeight;
 
+    /**
+     * 环形数组，顺序与子控件在layout中的顺序相同
+     * 逻辑位置index的子控件为children[(head + index) % children.length]，见{@link #childAt(int)}
+     */
     private View[] children;
+    /**
+     * 逻辑位置0在{@link #children}中的下标
+     */
+    private int head = 0;
+    /**
+     * 逻辑位置0所在的页，逻辑位置index的子控件translation为(firstPage + index) * 页大小
+     * 轮转时只修改被轮转的子控件，其余子控件位置不变
+     */
+    private int firstPage = 0;
 
+    /**
+     * 每个ScrollLayout只创建一个，手势结束时clear
+     */
     private VelocityTracker mVelocityTracker;
     private Scroller mScroller;
+    /**
+     * 滚动动画由{@link Choreographer}驱动，在每帧的动画阶段(绘制之前)更新滚动位置及轮转子控件
+     */
+    private final Choreographer.FrameCallback animationFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            animationFramePosted = false;
+            if (isSliding)
+                applyPendingDrag();
+            animateScroll();
+            schedulePrefetch(frameTimeNanos);
+        }
+    };
+    private boolean animationFramePosted = false;
+    private final FrameScheduler defaultFrameScheduler = new FrameScheduler() {
+        @Override
+        public void postFrameCallback(Choreographer.FrameCallback callback) {
+            Choreographer.getInstance().postFrameCallback(callback);
+        }
+
+        @Override
+        public void removeFrameCallback(Choreographer.FrameCallback callback) {
+            Choreographer.getInstance().removeFrameCallback(callback);
+        }
+
+        @Override
+        public void postIdle(Runnable action) {
+            post(action);
+        }
+
+        @Override
+        public void removeIdle(Runnable action) {
+            removeCallbacks(action);
+        }
+    };
+    private FrameScheduler frameScheduler = defaultFrameScheduler;
 
     private int scrollOrientation = VERTICAL;
 
@@ -87,21 +185,146 @@ public class ScrollLayout extends ViewGroup {
     private boolean isSliding;
     private float mDownX;
     private float mDownY;
+    /**
+     * 滚动跟随的手指，在{@link #dispatchTouchEvent(MotionEvent)}中更新，
+     * 其他手指按下时改为跟随新手指，跟随的手指抬起时改为跟随另一个手指
+     */
+    private int mActivePointerId = MotionEvent.INVALID_POINTER_ID;
+    /**
+     * 还未滚动的手指移动距离，每帧在{@link #animationFrameCallback}中合并滚动一次
+     */
+    private float pendingDrag;
     private float mTouchSlop;
     private int currentIndex = 0;
     private boolean firstMeasure = true;
     private boolean scrolling = false;
+    /**
+     * 动画目标是否被{@link #retargetScroll(int)}修改过
+     */
+    private boolean retargeted = false;
     private boolean onlyTwoChildren = false;
-    private int alreadyAddCount = 0;
+    /**
+     * 只有两个子控件且没有{@link TwoChildrenAdapter}时，不复制子控件，
+     * {@link #children}中每个子控件出现两次，显示时移到对应的逻辑位置
+     */
+    private boolean mirrorTwoChildren = false;
+    /**
+     * 需要同步的克隆控件个数，见{@link #notifyViewChanged(View)}
+     */
+    private int dirtyMirrorCount = 0;
+    private boolean syncingMirror = false;
+    private boolean mirrorSyncPosted = false;
+    private final Runnable mirrorSyncRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mirrorSyncPosted = false;
+            syncNearbyMirrors();
+        }
+    };
 
     private float resistance = 1;
     private int toNormalOffset = 4;
     private int flingOffset = 1;
+    private float density = 1;
+    /**
+     * 按{@link #density}换算后的{@link #MAX_SPEED}、{@link #MIN_SPEED}，单位px/s
+     */
+    private float maxSpeed = MAX_SPEED;
+    private float minSpeed = MIN_SPEED;
+    private float snapshotSpeed = SNAPSHOT_SPEED;
     private boolean do3DAnim = false;
     private int startIndex = 1;
 
     private boolean canScrollByTouch = true;
 
+    private boolean useHardwareLayer = false;
+    private HardwareLayerPolicy hardwareLayerPolicy;
+    /**
+     * 动画期间使用硬件层的子控件：当前页及前后两页
+     */
+    private final View[] layerPages = new View[3];
+    private int layerPageCount = 0;
+
+    private MetricsListener metricsListener;
+    /**
+     * 复用的统计数据，{@link #metricsListener}不为空时才统计
+     */
+    private final Metrics metrics = new Metrics();
+    /**
+     * 是否正在统计(手势或动画期间)
+     */
+    private boolean metricsActive = false;
+    private long frameIntervalNanos;
+    private long lastFrameStartNanos;
+    private long upTimeNanos;
+
+    private GestureTrace gestureTrace;
+
+    /**
+     * 快速滚动时子控件的截图，null: 不使用截图
+     */
+    private LruCache<View, Bitmap> snapshotCache;
+    /**
+     * 从缓存中移除的截图，大小与一页相同时保留一个，创建下一个截图时复用
+     */
+    private Bitmap spareSnapshot;
+    /**
+     * 创建一个截图的平均时间，剩余时间不足时不创建
+     */
+    private long snapshotAverageNanos = 0;
+    private Canvas snapshotCanvas;
+    private Paint snapshotPaint;
+    /**
+     * 本帧是否使用截图绘制，每帧在{@link #dispatchDraw(Canvas)}中计算
+     */
+    private boolean drawSnapshots = false;
+
+    /**
+     * 帧间空闲时预先测量滚动方向上将要显示的子控件
+     * 0: 不预取，1: 向后，-1: 向前
+     */
+    private int prefetchDirection = 0;
+    private boolean prefetchPosted = false;
+    private long prefetchFrameNanos;
+    /**
+     * 预取一个子控件的平均时间，剩余时间不足时不预取
+     */
+    private long prefetchAverageNanos = 0;
+    private final Runnable prefetchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            prefetchPosted = false;
+            prefetch();
+        }
+    };
+    /**
+     * 最后一次手指移动的方向
+     */
+    private int dragDirection = 0;
+
+    /**
+     * {@link #children}中还未加载的{@link ViewStub}个数
+     */
+    private int lazyPageCount = 0;
+    private AsyncLayoutInflater asyncInflater;
+    /**
+     * 正在后台加载的{@link ViewStub}，按layout资源id分组
+     * AsyncLayoutInflater在一个线程中按请求顺序加载，同一资源的回调顺序与请求顺序相同
+     */
+    private final SparseArray<ArrayList<ViewStub>> inflatingStubs = new SparseArray<>();
+    private final AsyncLayoutInflater.OnInflateFinishedListener lazyPageInflateListener
+            = new AsyncLayoutInflater.OnInflateFinishedListener() {
+        @Override
+        public void onInflateFinished(View view, int resid, ViewGroup parent) {
+            if (parent != ScrollLayout.this)
+                return;
+            final ArrayList<ViewStub> stubs = inflatingStubs.get(resid);
+            if (stubs == null || stubs.isEmpty())
+                return;
+            replaceLazyPage(stubs.remove(0), view);
+        }
+    };
+
     private OnChangeListener onChangeListener;
 
     private String twoChildrenAdapterClass;
@@ -110,6 +333,87 @@ public class ScrollLayout extends ViewGroup {
     private String iDrawChildrenClass;
     private IDrawChildren iDrawChildren;
 
+    private String pageTransformerClass;
+    private PageTransformer pageTransformer;
+
+    private Adapter adapter;
+    private final AdapterObserver adapterObserver = new AdapterObserver() {
+        @Override
+        void onChanged() {
+            onAdapterDataChanged();
+        }
+
+        @Override
+        void onItemRangeChanged(int positionStart, int itemCount) {
+            onItemsChanged(positionStart, itemCount);
+        }
+
+        @Override
+        void onItemRangeInserted(int positionStart, int itemCount) {
+            onItemsInserted(positionStart, itemCount);
+        }
+
+        @Override
+        void onItemRangeRemoved(int positionStart, int itemCount) {
+            onItemsRemoved(positionStart, itemCount);
+        }
+
+        @Override
+        void onItemMoved(int fromPosition, int toPosition) {
+            onItemsMoved(fromPosition, toPosition);
+        }
+    };
+    /**
+     * 数据插入、删除、移动后，下一帧重新绑定位置变化的子控件
+     */
+    private boolean itemUpdatePosted = false;
+    /**
+     * 还未布局时数据的多次修改只记录{@link #pendingAdapterPosition}，合并为一次{@link #setupAdapterPages(int)}
+     */
+    private boolean adapterSetupPending = false;
+    private final Runnable itemUpdateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            itemUpdatePosted = false;
+            applyItemUpdates();
+        }
+    };
+    /**
+     * {@link #beginPageUpdate()}的嵌套层数
+     */
+    private int pageUpdateDepth = 0;
+    /**
+     * 批量修改子控件时不能保持当前页，结束时重置所有子控件
+     */
+    private boolean pageUpdateReset = false;
+    /**
+     * 批量修改子控件时当前显示的子控件，被移除时为其后的子控件
+     */
+    private View updateCurrentPage;
+    private boolean updateCurrentRemoved = false;
+    /**
+     * {@link Adapter}模式下，下次布局时当前页需要显示的数据位置
+     */
+    private int pendingAdapterPosition = 0;
+    private RecycledPagePool pagePool;
+    /**
+     * {@link #pagePool}是否由{@link #setRecycledPagePool(RecycledPagePool)}设置，多个layout共享
+     */
+    private boolean sharedPagePool = false;
+    /**
+     * 当前帧需要绘制的子控件逻辑位置，由{@link #computeVisiblePages()}计算
+     */
+    private int firstVisibleIndex;
+    private int lastVisibleIndex;
+    /**
+     * ViewGroup构造函数中会调用{@link #setClipToPadding(boolean)}，此时本类的字段初始化还未执行，
+     * 因此记录相反的值，默认false即clipToPadding为true
+     */
+    private boolean noClipToPadding;
+    private int lastWidthMeasureSpec;
+    private int lastHeightMeasureSpec;
+    private boolean hasMeasureSpec = false;
+
     public ScrollLayout(Context context) {
         this(context, null);
     }
@@ -132,6 +436,10 @@ public class ScrollLayout extends ViewGroup {
     private void init(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         mScroller = new Scroller(context, new DecelerateInterpolator());
         mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        density = context.getResources().getDisplayMetrics().density;
+        maxSpeed = MAX_SPEED * density;
+        minSpeed = MIN_SPEED * density;
+        snapshotSpeed = SNAPSHOT_SPEED * density;
 
         if (context != null && attrs != null) {
             final Resources.Theme theme = context.getTheme();
@@ -152,25 +460,14 @@ public class ScrollLayout extends ViewGroup {
         if (iDrawChildren == null) {
             iDrawChildren = new FlipLikeRotateBox(context, attrs, defStyleAttr, defStyleRes);
         }
+        initPageTransformer(context, attrs, defStyleAttr, defStyleRes);
     }
 
     private void initTwoChildrenAdapter() {
         twoChildrenAdapterClass = fillPackageName(twoChildrenAdapterClass);
         if (!TextUtils.isEmpty(twoChildrenAdapterClass)) {
-            try {
-                Class<? extends TwoChildrenAdapter> clz = (Class<? extends TwoChildrenAdapter>) Class.forName(twoChildrenAdapterClass);
-                TwoChildrenAdapter adapter = clz.newInstance();
-                this.twoChildrenAdapter = adapter;
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
-                throw new IllegalArgumentException("cannot find " + twoChildrenAdapterClass + ".", e);
-            } catch (InstantiationException e) {
-                e.printStackTrace();
-                throw new IllegalArgumentException("cannot create " + twoChildrenAdapterClass + ".", e);
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-                throw new IllegalArgumentException("cannot create " + twoChildrenAdapterClass + ".", e);
-            }
+            twoChildrenAdapter = FactoryRegistry.create(TwoChildrenAdapter.class, twoChildrenAdapterClass,
+                                                        getContext(), null, 0, 0);
         }
     }
 
@@ -195,44 +492,23 @@ public class ScrollLayout extends ViewGroup {
         return getClass().getPackage().getName() + "." + clz;
     }
 
+    /**
+     * 通过{@link FactoryRegistry}创建，未注册时使用反射
+     */
     private void initIDrawChildren(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
         iDrawChildrenClass = fillPackageName(iDrawChildrenClass);
         if (!TextUtils.isEmpty(iDrawChildrenClass)) {
-            try {
-                Class<? extends IDrawChildren> clz = (Class<? extends IDrawChildren>) Class.forName(iDrawChildrenClass);
-                try {
-                    Constructor<? extends IDrawChildren> constructor = clz.getConstructor(Context.class, AttributeSet.class, int.class, int.class);
-                    iDrawChildren = constructor.newInstance(context, attrs, defStyleAttr, defStyleRes);
-                } catch (NoSuchMethodException e) {
-                    e.printStackTrace();
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                } catch (InstantiationException e) {
-                    e.printStackTrace();
-                } catch (InvocationTargetException e) {
-                    e.printStackTrace();
-                }
-                if (iDrawChildren == null) {
-                    iDrawChildren = clz.newInstance();
-                }
-            } catch (ClassNotFoundException e) {
-                e.printStackTrace();
-                throw new IllegalArgumentException("cannot find " + iDrawChildrenClass + ".", e);
-            } catch (InstantiationException e) {
-                e.printStackTrace();
-                errorDrawChildrenClass(e);
-            } catch (IllegalAccessException e) {
-                e.printStackTrace();
-                errorDrawChildrenClass(e);
-            }
+            iDrawChildren = FactoryRegistry.create(IDrawChildren.class, iDrawChildrenClass,
+                                                   context, attrs, defStyleAttr, defStyleRes);
         }
     }
 
-    private void errorDrawChildrenClass(Exception e) {
-        throw new IllegalArgumentException("cannot create " + iDrawChildrenClass + " by default constructor. " +
-                "class must have a public default constructor, or public constructor with (" +
-                Context.class.getName() + ", " + AttributeSet.class.getName() + ", " + int.class.getName() + ", " + int.class.getName() +
-                ").", e);
+    private void initPageTransformer(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        pageTransformerClass = fillPackageName(pageTransformerClass);
+        if (TextUtils.isEmpty(pageTransformerClass))
+            return;
+        pageTransformer = FactoryRegistry.create(PageTransformer.class, pageTransformerClass,
+                                                 context, attrs, defStyleAttr, defStyleRes);
     }
 
     @SuppressWarnings("WrongConstant")
@@ -244,10 +520,13 @@ public class ScrollLayout extends ViewGroup {
             setDo3DAnim(a.getBoolean(R.styleable.ScrollLayout_slt_do_3d_anim, do3DAnim));
             setCanScrollByTouch(a.getBoolean(R.styleable.ScrollLayout_slt_can_scroll_by_touch, canScrollByTouch));
             setScrollOrientation(a.getInt(R.styleable.ScrollLayout_slt_scroll_orientation, scrollOrientation));
+            setUseHardwareLayer(a.getBoolean(R.styleable.ScrollLayout_slt_hardware_layer, useHardwareLayer));
             final String clz = a.getString(R.styleable.ScrollLayout_slt_two_children_adapter);
             twoChildrenAdapterClass = TextUtils.isEmpty(clz) ? twoChildrenAdapterClass : clz;
             final String drawChildrenInterface = a.getString(R.styleable.ScrollLayout_slt_draw_children_interface);
             iDrawChildrenClass = TextUtils.isEmpty(drawChildrenInterface) ? iDrawChildrenClass : drawChildrenInterface;
+            final String transformer = a.getString(R.styleable.ScrollLayout_slt_page_transformer);
+            pageTransformerClass = TextUtils.isEmpty(transformer) ? pageTransformerClass : transformer;
             a.recycle();
         }
     }
@@ -271,12 +550,19 @@ public class ScrollLayout extends ViewGroup {
      * 只有两个子View时的处理逻辑
      */
     private void onlyTwoChildren() {
+        onlyTwoChildren = true;
+        //不能延迟加载
+        if (getChildAt(0) instanceof ViewStub)
+            ((ViewStub) getChildAt(0)).inflate();
+        if (getChildAt(1) instanceof ViewStub)
+            ((ViewStub) getChildAt(1)).inflate();
         if (twoChildrenAdapter == null) {
-            throw new IllegalArgumentException("if there are only two children, " +
-                    "you must set an 'TwoChildrenAdapter' " +
-                    "using 'flt_two_children_adapter=\"full class name\"'");
+            mirrorTwoChildren = true;
+            children = new View[MIRROR_PAGE_COUNT];
+            return;
         }
-        onlyTwoChildren = true;
+        mirrorTwoChildren = false;
+        dirtyMirrorCount = 0;
         final View first = getChildAt(0);
         final View second = getChildAt(1);
         final View cloneFirst = twoChildrenAdapter.cloneFirstView(this, first);
@@ -286,41 +572,203 @@ public class ScrollLayout extends ViewGroup {
 
         addView(cloneFirst);
         addView(cloneSecond);
+        pairMirror(first, cloneFirst);
+        pairMirror(second, cloneSecond);
         final int childCount = getChildCount();
         children = new View[childCount];
     }
 
+    /**
+     * 记录原控件与克隆控件的对应关系，两者需使用不同的{@link LayoutParams}
+     */
+    private void pairMirror(View original, View clone) {
+        final LayoutParams lp = (LayoutParams) original.getLayoutParams();
+        if (clone.getLayoutParams() == lp)
+            clone.setLayoutParams(new LayoutParams((MarginLayoutParams) lp));
+        final LayoutParams cloneLp = (LayoutParams) clone.getLayoutParams();
+        lp.mirror = clone;
+        cloneLp.mirror = original;
+        lp.mirrorDirty = false;
+        cloneLp.mirrorDirty = false;
+        cloneLp.cloned = true;
+    }
+
+    /**
+     * 退出两个子控件的模式，移除克隆控件，之后按子控件个数重新判断
+     */
+    private void exitTwoChildren() {
+        for (int i = getChildCount() - 1; i >= 0; i--) {
+            final LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
+            if (lp.cloned) {
+                removeViewAt(i);
+                continue;
+            }
+            lp.mirror = null;
+            lp.mirrorDirty = false;
+        }
+        onlyTwoChildren = false;
+        mirrorTwoChildren = false;
+        dirtyMirrorCount = 0;
+    }
+
     private void onlyOneChild() {
         throw new IllegalArgumentException("why not use other ViewGroup?");
     }
 
     private void resetChildren() {
-        int childCount = getChildCount();
-        if (children == null || children.length != childCount) {
-            children = new View[childCount];
+        final int childCount = getChildCount();
+        final int pageCount = getPageSlotCount();
+        if (children == null || children.length != pageCount) {
+            children = new View[pageCount];
         }
-        for (int i = 0 ; i < childCount ; i++) {
-            children[i] = getChildAt(i);
+        head = 0;
+        firstPage = 0;
+        lazyPageCount = 0;
+        //克隆模式下克隆控件的位置与原控件相同
+        final int itemCount = onlyTwoChildren ? 2 : childCount;
+        for (int i = 0 ; i < pageCount ; i++) {
+            children[i] = getChildAt(i % childCount);
             resetView(children[i], i);
+            //镜像模式下每个子控件出现两次，记录第一次出现的下标
+            if (i < childCount) {
+                final LayoutParams lp = (LayoutParams) children[i].getLayoutParams();
+                lp.slot = i;
+                lp.position = i % itemCount;
+            }
+            if (children[i] instanceof ViewStub)
+                lazyPageCount ++;
         }
+        placeMirrorPages();
+    }
+
+    /**
+     * {@link #children}的长度，镜像模式下为{@link #MIRROR_PAGE_COUNT}，其他为子控件个数
+     */
+    private int getPageSlotCount() {
+        return mirrorTwoChildren ? MIRROR_PAGE_COUNT : getChildCount();
     }
 
     /**
      * 重置view的View的translationY
+     * 镜像模式下由{@link #placeMirrorPages()}设置
      * @param v
-     * @param index view在{@link #children}中的下标
+     * @param index view的逻辑位置
      */
     private void resetView(View v, int index) {
+        if (mirrorTwoChildren)
+            return;
+        setPageTranslation(v, index);
+    }
+
+    /**
+     * 镜像模式下每个子控件对应两个逻辑位置，将子控件移到正在显示的逻辑位置，
+     * 只显示一个时，另一个移到后一个逻辑位置
+     * 连续的逻辑位置对应不同的子控件，所以同时显示的两个逻辑位置不会是同一个子控件
+     */
+    private void placeMirrorPages() {
+        if (!mirrorTwoChildren || !computeVisiblePages())
+            return;
+        for (int i = firstVisibleIndex; i <= lastVisibleIndex; i++) {
+            setPageTranslation(childAt(i), i);
+        }
+        if (firstVisibleIndex == lastVisibleIndex) {
+            final int i = firstVisibleIndex + 1 < children.length ? firstVisibleIndex + 1 : firstVisibleIndex - 1;
+            setPageTranslation(childAt(i), i);
+        }
+    }
+
+    /**
+     * 将子控件移到逻辑位置index
+     */
+    private void setPageTranslation(View v, int index) {
+        switch (scrollOrientation) {
+            case VERTICAL:
+                v.setTranslationY((firstPage + index) * childHeight);
+                break;
+            case HORIZONTAL:
+                v.setTranslationX((firstPage + index) * childWdith);
+                break;
+        }
+    }
+
+    /**
+     * 获取逻辑位置为index的子控件
+     * @param index [0, children.length)
+     * @return
+     */
+    private View childAt(int index) {
+        return children[(head + index) % children.length];
+    }
+
+    /**
+     * 逻辑位置转换为在{@link #children}中的下标
+     */
+    private int toChildrenIndex(int index) {
+        return (head + index) % children.length;
+    }
+
+    /**
+     * 在{@link #children}中的下标转换为逻辑位置，轮转时只修改{@link #head}，不需要更新每个子控件
+     */
+    private int toLogicalIndex(int slot) {
+        return (slot - head + children.length) % children.length;
+    }
+
+    /**
+     * 将page放入{@link #children}的slot位置，并记录在{@link LayoutParams#slot}中
+     */
+    private void setSlot(int slot, View page) {
+        children[slot] = page;
+        ((LayoutParams) page.getLayoutParams()).slot = slot;
+    }
+
+    private int getPageSize() {
+        return scrollOrientation == VERTICAL ? childHeight : childWdith;
+    }
+
+    /**
+     * 获取相对于逻辑位置0的滚动距离，当前页静止时为currentIndex * 页大小
+     * @return
+     */
+    private int getPageScroll() {
+        final int scroll = scrollOrientation == VERTICAL ? getScrollY() : getScrollX();
+        return scroll - firstPage * getPageSize();
+    }
+
+    /**
+     * 保持显示内容不变，轮转num个子控件后调用
+     * @param pages 正数: 向后滚动num页
+     */
+    private void scrollByPages(int pages) {
         switch (scrollOrientation) {
             case VERTICAL:
-                v.setTranslationY(index * childHeight);
+                scrollBy(0, pages * childHeight);
                 break;
             case HORIZONTAL:
-                v.setTranslationX(index * childWdith);
+                scrollBy(pages * childWdith, 0);
                 break;
         }
     }
 
+    private void rebasePagesIfNeeded() {
+        if (children != null && Math.abs(firstPage) > MAX_FIRST_PAGE) {
+            rebasePages();
+        }
+    }
+
+    /**
+     * 将{@link #firstPage}归零，重新设置所有子控件位置
+     */
+    private void rebasePages() {
+        final int pages = firstPage;
+        firstPage = 0;
+        final int c = children.length;
+        for (int i = 0; i < c; i++) {
+            resetView(childAt(i), i);
+        }
+        scrollByPages(-pages);
+    }
+
     private void checkCloneView(View clone, View res) {
         if (clone == null)
             throw new NullPointerException("clone view is null.");
@@ -330,6 +778,17 @@ public class ScrollLayout extends ViewGroup {
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (metricsActive) {
+            final long start = System.nanoTime();
+            measurePages(widthMeasureSpec, heightMeasureSpec);
+            metrics.measureNanos += System.nanoTime() - start;
+            metrics.measureCount ++;
+        } else {
+            measurePages(widthMeasureSpec, heightMeasureSpec);
+        }
+    }
+
+    private void measurePages(int widthMeasureSpec, int heightMeasureSpec) {
         int count = getChildCount();
 
         final int pl = getPaddingLeft();
@@ -341,7 +800,10 @@ public class ScrollLayout extends ViewGroup {
         int maxWidth = 0;
         int childState = 0;
 
-        final View firstMeasureView = getFirstMeasureView();
+        //大小确定时不需要根据子控件计算自身大小
+        final boolean exactly = MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.EXACTLY
+                && MeasureSpec.getMode(heightMeasureSpec) == MeasureSpec.EXACTLY;
+        final View firstMeasureView = exactly ? null : getFirstMeasureView();
         if (firstMeasureView != null) {
             measureChildWithMargins(firstMeasureView, widthMeasureSpec, 0, heightMeasureSpec, 0);
             final LayoutParams lp = (LayoutParams) firstMeasureView.getLayoutParams();
@@ -368,77 +830,148 @@ public class ScrollLayout extends ViewGroup {
         childWdith = mWidth - pl - pr;
         childHeight = mHeight - pt - pb;
 
+        lastWidthMeasureSpec = widthMeasureSpec;
+        lastHeightMeasureSpec = heightMeasureSpec;
+        hasMeasureSpec = true;
+
         if (count == 0)
             return;
+        //布局完成后只测量显示的及相邻的子控件，其他子控件滚动到附近时再测量
+        if (!firstMeasure && computeVisiblePages()) {
+            final int c = children.length;
+            final int from = Math.max(firstVisibleIndex - 1, 0);
+            final int to = Math.min(lastVisibleIndex + 1, c - 1);
+            for (int i = 0; i < c; i++) {
+                final View child = childAt(i);
+                if (child.getVisibility() == GONE)
+                    continue;
+                if (i >= from && i <= to) {
+                    measurePage(child, widthMeasureSpec, heightMeasureSpec);
+                } else if (child.isLayoutRequested()) {
+                    ((LayoutParams) child.getLayoutParams()).measurePending = true;
+                }
+            }
+            return;
+        }
         int start = -1;
         if (count > 1) {
             for (int i = 0; i < count; i++) {
                 final View child = getChildAt(i);
-                if (child.getVisibility() == GONE)
-                    continue;
                 final LayoutParams lp = (LayoutParams) child.getLayoutParams();
-                if (lp.startFromHere && start == -1) {
+                //ViewStub为GONE，但加载后可见
+                if (lp.startFromHere && start == -1
+                        && (child.getVisibility() != GONE || child instanceof ViewStub)) {
                     start = i;
                 }
-                final int childWidthMeasureSpec;
-                if (lp.width == LayoutParams.MATCH_PARENT) {
-                    final int width = Math.max(0,
-                                               childWdith - lp.leftMargin - lp.rightMargin);
-                    childWidthMeasureSpec = MeasureSpec.makeMeasureSpec(
-                            width, MeasureSpec.EXACTLY);
-                } else {
-                    childWidthMeasureSpec = getChildMeasureSpec(widthMeasureSpec,
-                            pr + pr + lp.leftMargin + lp.rightMargin,
-                            lp.width);
-                }
-
-                final int childHeightMeasureSpec;
-                if (lp.height == LayoutParams.MATCH_PARENT) {
-                    final int height = Math.max(0,
-                                                childHeight - lp.topMargin - lp.bottomMargin);
-                    childHeightMeasureSpec = MeasureSpec.makeMeasureSpec(
-                            height, MeasureSpec.EXACTLY);
-                } else {
-                    childHeightMeasureSpec = getChildMeasureSpec(heightMeasureSpec,
-                            pt + pb + lp.topMargin + lp.bottomMargin,
-                            lp.height);
-                }
-
-                child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
+                if (child.getVisibility() == GONE)
+                    continue;
+                measurePage(child, widthMeasureSpec, heightMeasureSpec);
             }
         }
         if (firstMeasure) {
-            if (count <= 2)
+            if (count <= 2 && !mirrorTwoChildren)
                 return;
             firstMeasure = false;
             resetChildren();
-            if (start > 0) {
+            if (adapter != null) {
+                currentIndex = 1;
+                startIndex = 0;
+                scrollToCurrent();
+                //合并的数据修改还未执行时数据可能已清空，由setupPendingAdapterPages移除子控件
+                if (adapter.getItemCount() > 0)
+                    bindPagesAround(pendingAdapterPosition);
+            } else if (start > 0) {
                 startIndex = start;
                 currentIndex = startIndex;
-                switch (scrollOrientation) {
-                    case VERTICAL:
-                        scrollTo(0, currentIndex * childHeight);
-                        break;
-                    case HORIZONTAL:
-                        scrollTo(currentIndex * childWdith, 0);
-                        break;
-                }
+                scrollToCurrent();
             } else {
                 currentIndex = 1;
                 startIndex = 0;
-                switch (scrollOrientation) {
-                    case VERTICAL:
-                        scrollTo(0, currentIndex * childHeight);
-                        break;
-                    case HORIZONTAL:
-                        scrollTo(currentIndex * childWdith, 0);
-                        break;
-                }
+                scrollToCurrent();
                 gotoChild(0, false);
             }
         }
     }
 
+    /**
+     * 滚动到{@link #currentIndex}所在位置
+     */
+    private void scrollToCurrent() {
+        switch (scrollOrientation) {
+            case VERTICAL:
+                scrollTo(0, (firstPage + currentIndex) * childHeight);
+                break;
+            case HORIZONTAL:
+                scrollTo((firstPage + currentIndex) * childWdith, 0);
+                break;
+        }
+    }
+
+    /**
+     * 滚动时测量并布局显示的及相邻的子控件中需要测量的子控件
+     * 需先调用{@link #computeVisiblePages()}
+     */
+    private void measureNearbyPages() {
+        final int from = Math.max(firstVisibleIndex - 1, 0);
+        final int to = Math.min(lastVisibleIndex + 1, children.length - 1);
+        for (int i = from; i <= to; i++) {
+            final View child = childAt(i);
+            if (child.getVisibility() == GONE)
+                continue;
+            if (measurePage(child, lastWidthMeasureSpec, lastHeightMeasureSpec))
+                layoutPage(child);
+        }
+    }
+
+    /**
+     * 测量一个子控件，子控件大小最大为一页的大小
+     * 测量参数与上次相同且没有请求布局时不测量
+     * @param child
+     * @param widthMeasureSpec  {@link #onMeasure(int, int)}中的参数
+     * @param heightMeasureSpec {@link #onMeasure(int, int)}中的参数
+     * @return 是否测量了
+     */
+    private boolean measurePage(View child, int widthMeasureSpec, int heightMeasureSpec) {
+        final int pl = getPaddingLeft();
+        final int pt = getPaddingTop();
+        final int pr = getPaddingRight();
+        final int pb = getPaddingBottom();
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        final int childWidthMeasureSpec;
+        if (lp.width == LayoutParams.MATCH_PARENT) {
+            final int width = Math.max(0,
+                                       childWdith - lp.leftMargin - lp.rightMargin);
+            childWidthMeasureSpec = MeasureSpec.makeMeasureSpec(
+                    width, MeasureSpec.EXACTLY);
+        } else {
+            childWidthMeasureSpec = getChildMeasureSpec(widthMeasureSpec,
+                    pl + pr + lp.leftMargin + lp.rightMargin,
+                    lp.width);
+        }
+
+        final int childHeightMeasureSpec;
+        if (lp.height == LayoutParams.MATCH_PARENT) {
+            final int height = Math.max(0,
+                                        childHeight - lp.topMargin - lp.bottomMargin);
+            childHeightMeasureSpec = MeasureSpec.makeMeasureSpec(
+                    height, MeasureSpec.EXACTLY);
+        } else {
+            childHeightMeasureSpec = getChildMeasureSpec(heightMeasureSpec,
+                    pt + pb + lp.topMargin + lp.bottomMargin,
+                    lp.height);
+        }
+
+        if (lp.childWidthMeasureSpec == childWidthMeasureSpec
+                && lp.childHeightMeasureSpec == childHeightMeasureSpec
+                && !lp.measurePending && !child.isLayoutRequested())
+            return false;
+        child.measure(childWidthMeasureSpec, childHeightMeasureSpec);
+        lp.measurePending = false;
+        lp.childWidthMeasureSpec = childWidthMeasureSpec;
+        lp.childHeightMeasureSpec = childHeightMeasureSpec;
+        return true;
+    }
+
     /**
      * 获取第一个非{@link #GONE}的子控件
      * @return
@@ -464,37 +997,253 @@ public class ScrollLayout extends ViewGroup {
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        final int pl = getPaddingLeft();
-        final int pt = getPaddingTop();
-
+        final long start = metricsActive ? System.nanoTime() : 0;
         final int childCount = getChildCount();
         for (int i = 0 ; i < childCount; i ++) {
             final View child = getChildAt(i);
-            if (child != null && child.getVisibility() != GONE) {
-                final int cmh = child.getMeasuredHeight();
-                final int cmw = child.getMeasuredWidth();
-                final LayoutParams lp = (LayoutParams) child.getLayoutParams();
-
-                int childLeft = pl + lp.leftMargin;
-                final int bottom = pt + cmh;
-                child.layout(childLeft, pt, childLeft + cmw, bottom);
+            //延迟测量的子控件在测量后布局，layout会清除请求布局的标记
+            if (child != null && child.getVisibility() != GONE
+                    && !((LayoutParams) child.getLayoutParams()).measurePending) {
+                layoutPage(child);
             }
         }
+        transformPages();
+        inflateNearbyPages();
+        if (metricsActive) {
+            metrics.layoutNanos += System.nanoTime() - start;
+            metrics.layoutCount ++;
+        }
+    }
+
+    private void layoutPage(View child) {
+        final int pl = getPaddingLeft();
+        final int pt = getPaddingTop();
+        final int cmh = child.getMeasuredHeight();
+        final int cmw = child.getMeasuredWidth();
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+
+        int childLeft = pl + lp.leftMargin;
+        final int bottom = pt + cmh;
+        child.layout(childLeft, pt, childLeft + cmw, bottom);
     }
 
     @Override
     protected void dispatchDraw(Canvas canvas) {
-        if (do3DAnim && iDrawChildren != null) {
-            final int childCount = getChildCount();
-            final long drawingTime = getDrawingTime();
-            for (int i = 0; i < childCount; i++) {
+        final long start = metricsActive ? System.nanoTime() : 0;
+        drawSnapshots = shouldDrawSnapshots();
+        if (!computeVisiblePages()) {
+            super.dispatchDraw(canvas);
+            if (metricsActive)
+                onFrameDrawn(start, getChildCount());
+            return;
+        }
+        drawVisiblePages(canvas);
+        if (metricsActive)
+            onFrameDrawn(start, lastVisibleIndex - firstVisibleIndex + 1);
+    }
+
+    private void drawVisiblePages(Canvas canvas) {
+        final long drawingTime = getDrawingTime();
+        if (do3DAnim && iDrawChildren != null && pageTransformer == null) {
+            for (int i = firstVisibleIndex; i <= lastVisibleIndex; i++) {
                 drawChild(canvas, i, drawingTime);
             }
         } else {
-            super.dispatchDraw(canvas);
+            int saveCount = -1;
+            if (!noClipToPadding) {
+                saveCount = canvas.save();
+                final int sx = getScrollX();
+                final int sy = getScrollY();
+                canvas.clipRect(sx + getPaddingLeft(), sy + getPaddingTop(),
+                        sx + getWidth() - getPaddingRight(), sy + getHeight() - getPaddingBottom());
+            }
+            for (int i = firstVisibleIndex; i <= lastVisibleIndex; i++) {
+                final View child = childAt(i);
+                if (child.getVisibility() == VISIBLE || child.getAnimation() != null) {
+                    drawChild(canvas, child, drawingTime);
+                }
+            }
+            if (saveCount >= 0) {
+                canvas.restoreToCount(saveCount);
+            }
+        }
+    }
+
+    /**
+     * 统计一帧的绘制数据
+     * @param start         开始绘制的时间
+     * @param childrenDrawn 绘制的子控件个数
+     */
+    private void onFrameDrawn(long start, int childrenDrawn) {
+        final Metrics m = metrics;
+        m.frameCount ++;
+        m.totalChildrenDrawn += childrenDrawn;
+        if (childrenDrawn > m.maxChildrenDrawn)
+            m.maxChildrenDrawn = childrenDrawn;
+        if (lastFrameStartNanos != 0) {
+            final long frame = start - lastFrameStartNanos;
+            m.totalFrameNanos += frame;
+            if (frame > m.maxFrameNanos)
+                m.maxFrameNanos = frame;
+            final long dropped = (frame + (frameIntervalNanos >> 1)) / frameIntervalNanos - 1;
+            if (dropped > 0)
+                m.droppedFrames += dropped;
+        }
+        lastFrameStartNanos = start;
+    }
+
+    /**
+     * 手势或动画开始时开始统计
+     */
+    private void startMetrics() {
+        if (metricsListener == null || metricsActive)
+            return;
+        metricsActive = true;
+        metrics.reset();
+        lastFrameStartNanos = 0;
+        upTimeNanos = 0;
+        frameIntervalNanos = getFrameIntervalNanos();
+    }
+
+    /**
+     * 按屏幕刷新率计算的帧间隔，默认60Hz
+     */
+    private long getFrameIntervalNanos() {
+        final Display display = getDisplay();
+        final float refreshRate = display != null ? display.getRefreshRate() : 0;
+        return (long) (1000000000L / (refreshRate > 0 ? refreshRate : 60));
+    }
+
+    /**
+     * 手势及动画结束时回调{@link #metricsListener}
+     */
+    private void finishMetrics() {
+        if (!metricsActive)
+            return;
+        metricsActive = false;
+        if (metricsListener != null)
+            metricsListener.onMetrics(this, metrics);
+    }
+
+    /**
+     * 根据当前滚动位置计算需要绘制的子控件逻辑位置[{@link #firstVisibleIndex}, {@link #lastVisibleIndex}]
+     * 静止时只有一个，滚动时最多两个
+     * @return false: 还未完成布局，需绘制所有子控件
+     */
+    private boolean computeVisiblePages() {
+        final int size = getPageSize();
+        if (children == null || firstMeasure || size <= 0 || children.length != getPageSlotCount())
+            return false;
+        final int scroll = getPageScroll();
+        firstVisibleIndex = Math.max(PageMath.firstVisiblePage(scroll, size), 0);
+        lastVisibleIndex = Math.min(PageMath.lastVisiblePage(scroll, size), children.length - 1);
+        return true;
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        placeMirrorPages();
+        syncNearbyMirrors();
+        if (hasMeasureSpec && !firstMeasure && computeVisiblePages())
+            measureNearbyPages();
+        transformPages();
+        inflateNearbyPages();
+    }
+
+    /**
+     * 当前显示的子控件及前后的子控件中若有{@link ViewStub}，在后台线程加载
+     */
+    private void inflateNearbyPages() {
+        if (lazyPageCount == 0 || !computeVisiblePages())
+            return;
+        final int from = Math.max(firstVisibleIndex - 1, 0);
+        final int to = Math.min(lastVisibleIndex + 1, children.length - 1);
+        for (int i = from; i <= to; i++) {
+            final View page = childAt(i);
+            if (page instanceof ViewStub)
+                inflateLazyPage((ViewStub) page);
+        }
+    }
+
+    private void inflateLazyPage(ViewStub stub) {
+        final LayoutParams lp = (LayoutParams) stub.getLayoutParams();
+        if (lp.inflating)
+            return;
+        lp.inflating = true;
+        if (asyncInflater == null)
+            asyncInflater = new AsyncLayoutInflater(getContext());
+        final int resid = stub.getLayoutResource();
+        ArrayList<ViewStub> stubs = inflatingStubs.get(resid);
+        if (stubs == null) {
+            stubs = new ArrayList<>();
+            inflatingStubs.put(resid, stubs);
+        }
+        stubs.add(stub);
+        asyncInflater.inflate(resid, this, lazyPageInflateListener);
+    }
+
+    /**
+     * 在主线程中用加载好的控件替换{@link ViewStub}，下标不变
+     * 加载期间stub已被移除(如重新添加了子控件)时丢弃加载结果
+     * @param stub
+     * @param page
+     */
+    private void replaceLazyPage(ViewStub stub, View page) {
+        final LayoutParams lp = (LayoutParams) stub.getLayoutParams();
+        lp.inflating = false;
+        if (stub.getParent() != this)
+            return;
+        final int index = indexOfChild(stub);
+        if (stub.getInflatedId() != NO_ID)
+            page.setId(stub.getInflatedId());
+        page.setLayoutParams(lp);
+        removeViewInLayout(stub);
+        addPageInLayout(page, index);
+        if (!firstMeasure && children != null && lp.slot >= 0 && children[lp.slot] == stub) {
+            children[lp.slot] = page;
+            resetView(page, toLogicalIndex(lp.slot));
+            lazyPageCount --;
+            transformPages();
+        }
+        invalidate();
+    }
+
+    /**
+     * 对当前显示的子控件及前后的子控件调用{@link PageTransformer#transformPage(ScrollLayout, View, int, float)}
+     */
+    private void transformPages() {
+        if (pageTransformer == null || !computeVisiblePages())
+            return;
+        final float scroll = (float) getPageScroll() / getPageSize();
+        //镜像模式下相邻的逻辑位置可能是正在显示的子控件
+        final int from = mirrorTwoChildren ? firstVisibleIndex : Math.max(firstVisibleIndex - 1, 0);
+        final int to = mirrorTwoChildren ? lastVisibleIndex : Math.min(lastVisibleIndex + 1, children.length - 1);
+        for (int i = from; i <= to; i++) {
+            pageTransformer.transformPage(this, childAt(i), scrollOrientation, i - scroll);
         }
     }
 
+    /**
+     * 清除{@link PageTransformer}设置的属性
+     * @param page
+     */
+    private static void resetPageProperties(View page) {
+        page.setAlpha(1);
+        page.setRotationX(0);
+        page.setRotationY(0);
+        page.setScaleX(1);
+        page.setScaleY(1);
+        page.setPivotX(page.getWidth() / 2f);
+        page.setPivotY(page.getHeight() / 2f);
+    }
+
+    @Override
+    public void setClipToPadding(boolean clipToPadding) {
+        super.setClipToPadding(clipToPadding);
+        noClipToPadding = !clipToPadding;
+    }
+
     /**
      * 3d效果，由{@link IDrawChildren}实现
      * @param canvas
@@ -502,17 +1251,149 @@ public class ScrollLayout extends ViewGroup {
      * @param drawingTime
      */
     private void drawChild(Canvas canvas, int index, long drawingTime) {
-        iDrawChildren.drawChild(this, children[index], canvas, scrollOrientation, index, drawingTime);
+        if (!metricsActive) {
+            iDrawChildren.drawChild(this, childAt(index), canvas, scrollOrientation, firstPage + index, drawingTime);
+            return;
+        }
+        final long start = System.nanoTime();
+        iDrawChildren.drawChild(this, childAt(index), canvas, scrollOrientation, firstPage + index, drawingTime);
+        metrics.drawChildrenNanos += System.nanoTime() - start;
     }
 
     @Override
     public boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (drawSnapshots && child.getVisibility() == VISIBLE && child.getAnimation() == null
+                && !((LayoutParams) child.getLayoutParams()).skipSnapshot) {
+            final Bitmap snapshot = snapshotCache.get(child);
+            if (snapshot != null) {
+                drawSnapshot(canvas, child, snapshot);
+                return false;
+            }
+        }
         return super.drawChild(canvas, child, drawingTime);
     }
 
+    /**
+     * 创建子控件截图，优先复用{@link #spareSnapshot}
+     * 在帧间空闲时调用({@link #prefetchSnapshots(long)})，绘制中只使用已有的截图
+     * @param child
+     * @return false: 子控件还未布局
+     */
+    private boolean createSnapshot(View child) {
+        if (childWdith <= 0 || childHeight <= 0 || child.getWidth() <= 0 || child.getHeight() <= 0)
+            return false;
+        Bitmap snapshot = spareSnapshot;
+        spareSnapshot = null;
+        if (snapshot != null && (snapshot.getWidth() != childWdith || snapshot.getHeight() != childHeight)) {
+            snapshot.recycle();
+            snapshot = null;
+        }
+        if (snapshot == null)
+            snapshot = Bitmap.createBitmap(childWdith, childHeight, Bitmap.Config.ARGB_8888);
+        else
+            snapshot.eraseColor(Color.TRANSPARENT);
+        if (snapshotCanvas == null)
+            snapshotCanvas = new Canvas();
+        snapshotCanvas.setBitmap(snapshot);
+        child.draw(snapshotCanvas);
+        snapshotCanvas.setBitmap(null);
+        snapshotCache.put(child, snapshot);
+        return true;
+    }
+
+    /**
+     * 截图从缓存中移除时，与一页大小相同且还没有备用截图时留作复用，否则回收
+     */
+    private void releaseSnapshot(Bitmap snapshot) {
+        if (spareSnapshot == null && snapshot.getWidth() == childWdith && snapshot.getHeight() == childHeight)
+            spareSnapshot = snapshot;
+        else
+            snapshot.recycle();
+    }
+
+    /**
+     * 清除缓存及备用的截图
+     */
+    private void clearSnapshots() {
+        if (snapshotCache != null)
+            snapshotCache.evictAll();
+        if (spareSnapshot != null) {
+            spareSnapshot.recycle();
+            spareSnapshot = null;
+        }
+    }
+
+    /**
+     * 按子控件的位置、变换及透明度绘制截图
+     */
+    private void drawSnapshot(Canvas canvas, View child, Bitmap snapshot) {
+        if (snapshotPaint == null)
+            snapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        snapshotPaint.setAlpha((int) (child.getAlpha() * 255));
+        final int save = canvas.save();
+        canvas.translate(child.getLeft(), child.getTop());
+        canvas.concat(child.getMatrix());
+        canvas.drawBitmap(snapshot, 0, 0, snapshotPaint);
+        canvas.restoreToCount(save);
+    }
+
+    /**
+     * 是否以较快速度执行动画，此时使用截图绘制
+     * 缓存放不下一页的截图时(大小改变后)不使用截图，否则每次空闲都会创建截图
+     */
+    private boolean shouldDrawSnapshots() {
+        return snapshotCache != null && scrolling && !isSliding && !mScroller.isFinished()
+                && getSnapshotByteCount() <= snapshotCache.maxSize()
+                && getScrollVelocity() > snapshotSpeed;
+    }
+
+    /**
+     * 一页截图的字节数(ARGB_8888)
+     */
+    private long getSnapshotByteCount() {
+        return (long) childWdith * childHeight * 4;
+    }
+
+    /**
+     * 清除子控件截图，子控件内容改变时调用
+     * 清除所有时，动画中重新绑定过的子控件也恢复使用截图
+     * @param child null: 清除所有
+     */
+    private void invalidateSnapshot(View child) {
+        if (snapshotCache == null)
+            return;
+        if (child == null) {
+            snapshotCache.evictAll();
+            final int count = getChildCount();
+            for (int i = 0; i < count; i++) {
+                ((LayoutParams) getChildAt(i).getLayoutParams()).skipSnapshot = false;
+            }
+        } else {
+            snapshotCache.remove(child);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (!mScroller.isFinished()) {
+            postAnimationFrame();
+        }
+        if (adapterSetupPending) {
+            setupPendingAdapterPages();
+        } else if (adapter != null && children == null && adapter.getItemCount() > 0) {
+            setupAdapterPages(pendingAdapterPosition);
+        }
+    }
+
     @Override
     public void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        removeAnimationFrame();
+        cancelPrefetch();
+        disableLayers();
+        finishMetrics();
+        clearSnapshots();
         if (mVelocityTracker != null)
             mVelocityTracker.recycle();
         mVelocityTracker = null;
@@ -526,16 +1407,17 @@ public class ScrollLayout extends ViewGroup {
 
     @Override
     public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (gestureTrace != null)
+            gestureTrace.add(ev);
         if (!canScrollByTouch)
             return super.dispatchTouchEvent(ev);
-        final int action = ev.getAction();
-        float x = ev.getX();
-        float y = ev.getY();
+        final int action = ev.getActionMasked();
         switch (action) {
             case MotionEvent.ACTION_DOWN:
                 isSliding = false;
-                mDownX = x;
-                mDownY = y;
+                mActivePointerId = ev.getPointerId(0);
+                mDownX = ev.getX();
+                mDownY = ev.getY();
                 if (!mScroller.isFinished()) {
                     //当上一次滑动没有结束时，再次点击，强制滑动在点击位置结束
                     switch (scrollOrientation) {
@@ -548,20 +1430,53 @@ public class ScrollLayout extends ViewGroup {
                     }
                     mScroller.abortAnimation();
                     scrollTo(getScrollX(), getScrollY());
+                    retargeted = false;
+                    if (children != null && getPageSize() > 0)
+                        syncCurrentIndex();
                     isSliding = true;
+                    enableLayers();
+                    startMetrics();
                 }
                 break;
             case MotionEvent.ACTION_MOVE:
                 if (!isSliding) {
                     isSliding = canSliding(ev);
+                    if (isSliding) {
+                        enableLayers();
+                        startMetrics();
+                    }
                 }
                 break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+                //新按下的手指接管滚动，从其当前位置开始计算移动距离
+                final int index = ev.getActionIndex();
+                mActivePointerId = ev.getPointerId(index);
+                mDownX = ev.getX(index);
+                mDownY = ev.getY(index);
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+                onSecondaryPointerUp(ev);
+                break;
             default:
                 break;
         }
         return super.dispatchTouchEvent(ev);
     }
 
+    /**
+     * 跟随的手指抬起时改为跟随另一个手指，从其当前位置开始计算移动距离，滚动位置不跳变
+     * @param ev ACTION_POINTER_UP
+     */
+    private void onSecondaryPointerUp(MotionEvent ev) {
+        final int index = ev.getActionIndex();
+        if (ev.getPointerId(index) != mActivePointerId)
+            return;
+        final int newIndex = index == 0 ? 1 : 0;
+        mActivePointerId = ev.getPointerId(newIndex);
+        mDownX = ev.getX(newIndex);
+        mDownY = ev.getY(newIndex);
+    }
+
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         if (!canScrollByTouch)
@@ -569,46 +1484,54 @@ public class ScrollLayout extends ViewGroup {
         if (mVelocityTracker == null) {
             mVelocityTracker = VelocityTracker.obtain();
         }
-        float y = event.getY();
-        float x = event.getX();
-        final int action = event.getAction();
+        final int action = event.getActionMasked();
         switch (action) {
             case MotionEvent.ACTION_DOWN:
+                mVelocityTracker.clear();
+                pendingDrag = 0;
                 return true;
             case MotionEvent.ACTION_MOVE:
                 if (isSliding) {
+                    //跟随的手指已在dispatchTouchEvent中更新
+                    final int index = event.findPointerIndex(mActivePointerId);
+                    if (index < 0)
+                        break;
+                    final float x = event.getX(index);
+                    final float y = event.getY(index);
+                    //addMovement同时处理历史采样点，滚动只需要最后的位置
                     mVelocityTracker.addMovement(event);
                     if (mScroller.isFinished()) {
-                        switch (scrollOrientation) {
-                            case VERTICAL:
-                                cycleMoveVertical((int) (mDownY - y));
-                                break;
-                            case HORIZONTAL:
-                                cycleMoveHorizontal((int) (mDownX - x));
-                                break;
-                        }
+                        pendingDrag += (scrollOrientation == VERTICAL ? mDownY - y : mDownX - x) / resistance;
+                        postAnimationFrame();
                     }
                     mDownY = y;
                     mDownX = x;
                 }
                 break;
+            case MotionEvent.ACTION_POINTER_DOWN:
+            case MotionEvent.ACTION_POINTER_UP:
+                //按手指id分别计算速度，抬起时使用最后跟随的手指的速度
+                if (isSliding)
+                    mVelocityTracker.addMovement(event);
+                break;
             case MotionEvent.ACTION_CANCEL:
             case MotionEvent.ACTION_UP:
                 if (isSliding) {
                     fling(event);
                 }
-                if (mVelocityTracker != null) {
-                    mVelocityTracker.recycle();
-                    mVelocityTracker = null;
-                }
+                //复用到下一次手势，在onDetachedFromWindow中回收
+                mVelocityTracker.clear();
                 break;
         }
         return super.onTouchEvent(event);
     }
 
     private boolean canSliding(MotionEvent ev) {
-        float deltaY = Math.abs(ev.getY() - mDownY);
-        float deltaX = Math.abs(ev.getX() - mDownX);
+        final int index = ev.findPointerIndex(mActivePointerId);
+        if (index < 0)
+            return false;
+        float deltaY = Math.abs(ev.getY(index) - mDownY);
+        float deltaX = Math.abs(ev.getX(index) - mDownX);
         switch (scrollOrientation) {
             case VERTICAL:
                 return deltaY > mTouchSlop && deltaY > deltaX;
@@ -619,46 +1542,42 @@ public class ScrollLayout extends ViewGroup {
     }
 
     /**
-     * 处理手指竖直方向移动
-     * @param delta
+     * 将本帧内累计的手指移动距离一次性滚动，不足1px的部分留到下一帧
      */
-    private void cycleMoveVertical(int delta) {
-        delta = delta % mHeight;
-        delta = (int) (delta / resistance);
-        if (Math.abs(delta) > (mHeight >> 2) ) {
+    private void applyPendingDrag() {
+        final int delta = (int) pendingDrag;
+        if (delta == 0 || !mScroller.isFinished())
             return;
-        }
-        scrolling = false;
-        scrollBy(0, delta);
-        int result = needAddPreOrNext(true, 0);
-        if (result == -1) {
-            addPre(1);
-            scrollBy(0, childHeight);
-        } else if (result == 1) {
-            addNext(1);
-            scrollBy(0, -childHeight);
-        }
+        pendingDrag -= delta;
+        dragDirection = delta > 0 ? 1 : -1;
+        cycleMove(delta);
     }
 
     /**
-     * 处理手指水平方向移动
-     * @param delta
+     * 处理手指移动，移动距离超过一页时连续轮转子控件
+     * @param delta 沿滚动方向的距离
      */
-    private void cycleMoveHorizontal(int delta) {
-        delta = delta % mWidth;
-        delta = (int) (delta / resistance);
-        if (Math.abs(delta) > (mWidth >> 2) ) {
-            return;
-        }
+    private void cycleMove(int delta) {
         scrolling = false;
-        scrollBy(delta, 0);
-        int result = needAddPreOrNext(false, 0);
+        switch (scrollOrientation) {
+            case VERTICAL:
+                scrollBy(0, delta);
+                break;
+            case HORIZONTAL:
+                scrollBy(delta, 0);
+                break;
+        }
+        final boolean vertical = scrollOrientation == VERTICAL;
+        final int result = needAddPreOrNext(vertical, 0);
+        //每次轮转滚动位置移动一页，只朝同一方向轮转，保证结束
         if (result == -1) {
-            addPre(1);
-            scrollBy(childWdith, 0);
+            do {
+                addPre(1);
+            } while (needAddPreOrNext(vertical, 0) == -1);
         } else if (result == 1) {
-            addNext(1);
-            scrollBy(-childWdith, 0);
+            do {
+                addNext(1);
+            } while (needAddPreOrNext(vertical, 0) == 1);
         }
     }
 
@@ -669,30 +1588,7 @@ public class ScrollLayout extends ViewGroup {
      * @return 0: 不添加，1: 在末尾添加，-1: 在前段添加
      */
     private int needAddPreOrNext(boolean vertical, @IntRange(from = -1, to = 1) int state) {
-        final int c = children.length;
-        int index = state == 1 ? 0 : 1;
-        int lindex = state == -1 ? c - 1 : c - 2;
-        if (vertical) {
-            final int sy = getScrollY();
-            //next : 0, pre || all: 1
-            final float top = children[index].getTranslationY() + MIN_NEED_ADD;
-            //next || all : c - 2, pre : c - 1
-            final float bottom = children[lindex].getTranslationY() - MIN_NEED_ADD;
-            if (sy < top)
-                return -1;
-            else if (sy > bottom)
-                return 1;
-            return 0;
-        } else {
-            final int sx = getScrollX();
-            final float left = children[index].getTranslationX() + MIN_NEED_ADD;
-            final float right = children[lindex].getTranslationX() - MIN_NEED_ADD;
-            if (sx < left)
-                return -1;
-            else if (sx > right)
-                return 1;
-            return 0;
-        }
+        return PageMath.needAddPreOrNext(getPageScroll(), getPageSize(), children.length, state);
     }
 
     /**
@@ -700,21 +1596,25 @@ public class ScrollLayout extends ViewGroup {
      * @param event
      */
     private void fling(MotionEvent event) {
+        if (metricsActive)
+            upTimeNanos = System.nanoTime();
+        applyPendingDrag();
+        pendingDrag = 0;
         mVelocityTracker.addMovement(event);
         isSliding = false;
         mVelocityTracker.computeCurrentVelocity(1000);
         float velocity = 0;
         switch (scrollOrientation) {
             case VERTICAL:
-                float yVelocity = mVelocityTracker.getYVelocity();
-                final int sy = getScrollY();
+                float yVelocity = mVelocityTracker.getYVelocity(mActivePointerId);
+                final int sy = getPageScroll();
                 //滑动的速度大于规定的速度，或者向下滑动时，上一页页面展现出的高度超过1/2。则设定状态为STATE_PRE
-                if (yVelocity > MAX_SPEED
+                if (yVelocity > maxSpeed
                         || currentIndex * childHeight - sy > (childHeight >> 1)) {
                     state = STATE_PRE;
                 }
                 //滑动的速度大于规定的速度，或者向上滑动时，下一页页面展现出的高度超过1/2。则设定状态为STATE_NEXT
-                else if ( yVelocity < -MAX_SPEED
+                else if ( yVelocity < -maxSpeed
                         || sy - currentIndex * childHeight > (childHeight >> 1)) {
                     state = STATE_NEXT;
                 } else {
@@ -723,13 +1623,13 @@ public class ScrollLayout extends ViewGroup {
                 velocity = yVelocity;
                 break;
             case HORIZONTAL:
-                float xVelocity = mVelocityTracker.getXVelocity();
-                final int sx = getScrollX();
-                if (xVelocity > MAX_SPEED
+                float xVelocity = mVelocityTracker.getXVelocity(mActivePointerId);
+                final int sx = getPageScroll();
+                if (xVelocity > maxSpeed
                         || currentIndex * childWdith - sx > (childWdith >> 1)) {
                     state = STATE_PRE;
                 }
-                else if ( xVelocity < -MAX_SPEED
+                else if ( xVelocity < -maxSpeed
                         || sx - currentIndex * childWdith > (childWdith >> 1)) {
                     state = STATE_NEXT;
                 } else {
@@ -744,8 +1644,7 @@ public class ScrollLayout extends ViewGroup {
     }
 
     private void changeByState(float velocity) {
-        if ( (scrollOrientation == VERTICAL && getScrollY() != childHeight)
-                || getScrollX() != childWdith) {
+        if (getPageScroll() != currentIndex * getPageSize()) {
             switch (state) {
                 case STATE_NOMARL:
                     toNormalAction();
@@ -758,6 +1657,10 @@ public class ScrollLayout extends ViewGroup {
                     break;
             }
             invalidate();
+        } else {
+            //正好停在页面边界，没有动画，手势开始时使用的硬件层及统计需在此结束
+            disableLayers();
+            finishMetrics();
         }
     }
 
@@ -765,23 +1668,13 @@ public class ScrollLayout extends ViewGroup {
      * mState = State.Normal 时进行的动作
      */
     private void toNormalAction() {
-        alreadyAddCount = 0;
         state = STATE_NOMARL;
         scrolling = true;
-        switch (scrollOrientation) {
-            case VERTICAL:
-                int startY = getScrollY();
-                int delta = childHeight * currentIndex - startY;
-                int duration = (Math.abs(delta)) * toNormalOffset;
-                mScroller.startScroll(0, startY, 0, delta, duration);
-                break;
-            case HORIZONTAL:
-                int startX = getScrollX();
-                int deltax = childWdith * currentIndex - startX;
-                int durationX = (Math.abs(deltax)) * toNormalOffset;
-                mScroller.startScroll(startX, 0, deltax, 0, durationX);
-                break;
-        }
+        enableLayers();
+        startMetrics();
+        final int delta = getPageSize() * currentIndex - getPageScroll();
+        final int duration = (int) (Math.abs(delta) / density) * toNormalOffset;
+        startScroll(delta, duration);
     }
 
     /**
@@ -790,56 +1683,24 @@ public class ScrollLayout extends ViewGroup {
      * @param velocity 速度
      */
     private void toPreAction(float velocity) {
-        alreadyAddCount = 0;
         state = STATE_PRE;
         scrolling = true;
+        enableLayers();
+        startMetrics();
         int addCount = getAddCount(velocity);
-        int startY = 0;
-        int startX = 0;
-        int deltaY = 0;
-        int deltaX = 0;
-        int duration = 0;
         final int result = needAddPreOrNext(scrollOrientation == VERTICAL, -1);
-        switch (scrollOrientation) {
-            case VERTICAL:
-                if (result == -1) {
-                    startY = getScrollY() + childHeight;
-                    addPre(1);
-                    addCount--;
-                    deltaY = startY - currentIndex * childHeight + addCount * childHeight;
-                } else {
-                    startY = getScrollY();
-                    deltaY = startY - currentIndex * childHeight + addCount * childHeight;
-                    addCount--;
-                }
-                setScrollY(startY);
-                duration = (Math.abs(deltaY)) * flingOffset;
-                break;
-            case HORIZONTAL:
-                if (result == -1) {
-                    startX = getScrollX() + childWdith;
-                    addPre(1);
-                    addCount--;
-                    deltaX = startX - currentIndex * childWdith + addCount * childWdith;
-                } else {
-                    startX = getScrollX();
-                    deltaX = startX - currentIndex * childWdith + addCount * childWdith;
-                    addCount--;
-                }
-                setScrollX(startX);
-                duration = Math.abs(deltaX) * flingOffset;
-                break;
+        if (result == -1) {
+            addPre(1);
+            addCount--;
         }
-        mScroller.startScroll(startX, startY, -deltaX, -deltaY, duration);
+        final int size = getPageSize();
+        final int delta = getPageScroll() - currentIndex * size + addCount * size;
+        startScroll(-delta, getFlingDuration(delta, velocity));
         invalidate();
     }
 
     private void addCurrentIndex(int offset) {
-        final int l = children.length;
-        if ((currentIndex <= 1 && offset < 0) || (currentIndex >= l - 2 && offset > 0) )
-            return;
-        currentIndex += l + offset;
-        currentIndex = currentIndex % l;
+        currentIndex = PageMath.addCurrentIndex(currentIndex, children.length, offset);
     }
 
     /**
@@ -848,224 +1709,749 @@ public class ScrollLayout extends ViewGroup {
      * @param velocity 速度
      */
     private void toNextAction(float velocity) {
-        alreadyAddCount = 0;
         state = STATE_NEXT;
         scrolling = true;
+        enableLayers();
+        startMetrics();
         int addCount = getAddCount(velocity);
-        int startY = 0;
-        int startX = 0;
-        int deltaY = 0;
-        int deltaX = 0;
-        int duration = 0;
         final int result = needAddPreOrNext(scrollOrientation == VERTICAL, 1);
+        if (result == 1) {
+            addNext(1);
+            addCount--;
+        }
+        final int size = getPageSize();
+        final int delta = size * currentIndex - getPageScroll() + addCount * size;
+        startScroll(delta, getFlingDuration(delta, velocity));
+        invalidate();
+    }
+
+    /**
+     * 是否正在执行可以修改目标的动画(非手势中)
+     */
+    private boolean isRetargetable() {
+        return scrolling && !isSliding && !mScroller.isFinished() && children != null && getPageSize() > 0;
+    }
+
+    /**
+     * 获取动画结束时的逻辑位置，可能超出子控件范围(动画中还会轮转)
+     */
+    private int getTargetPage() {
+        final int size = getPageSize();
+        final int finalScroll = scrollOrientation == VERTICAL ? mScroller.getFinalY() : mScroller.getFinalX();
+        return Math.round((float) (finalScroll - firstPage * size) / size);
+    }
+
+    /**
+     * 动画进行中调用{@link #toNext}, {@link #toPre}, {@link #gotoChild}时，合并为一个目标，
+     * 从当前位置继续滚动到新的目标，方向不变时保持当前速度，不中断动画
+     * @param offset 目标页移动的页数，正数: 向后
+     * @return false: 没有可以修改目标的动画
+     */
+    private boolean retargetScroll(int offset) {
+        if (!isRetargetable())
+            return false;
+        if (offset == 0)
+            return true;
+        final boolean vertical = scrollOrientation == VERTICAL;
+        final int scroll = vertical ? getScrollY() : getScrollX();
+        final int oldFinal = vertical ? mScroller.getFinalY() : mScroller.getFinalX();
+        final int delta = oldFinal + offset * getPageSize() - scroll;
+        final float velocity = (oldFinal - scroll > 0) == (delta > 0) ? getScrollVelocity() : 0;
+        state = delta > 0 ? STATE_NEXT : (delta < 0 ? STATE_PRE : STATE_NOMARL);
+        retargeted = true;
+        startScroll(delta, getFlingDuration(delta, velocity));
+        return true;
+    }
+
+    /**
+     * 当前动画的速度，动画插值为{@link DecelerateInterpolator}: 1 - (1 - t)^2
+     * @return px/s
+     */
+    private float getScrollVelocity() {
+        final int duration = mScroller.getDuration();
+        if (duration <= 0)
+            return 0;
+        final float t = Math.min((float) mScroller.timePassed() / duration, 1);
+        final int distance = scrollOrientation == VERTICAL
+                ? mScroller.getFinalY() - mScroller.getStartY()
+                : mScroller.getFinalX() - mScroller.getStartX();
+        return 2000f * (1 - t) * Math.abs(distance) / duration;
+    }
+
+    /**
+     * 动画结束或被打断后，按滚动位置重新计算{@link #currentIndex}，并保证前后都有子控件
+     * 修改过目标或一帧轮转多页时，{@link #addCurrentIndex(int)}累计的位置可能与终点不同
+     */
+    private void syncCurrentIndex() {
+        final int size = getPageSize();
+        final int c = children.length;
+        currentIndex = Math.round((float) getPageScroll() / size);
+        final int min = Math.min(1, c - 1);
+        final int max = Math.max(c - 2, min);
+        if (currentIndex < min) {
+            addPre(min - currentIndex);
+            currentIndex = min;
+        } else if (currentIndex > max) {
+            addNext(currentIndex - max);
+            currentIndex = max;
+        }
+    }
+
+    /**
+     * 从当前位置开始滚动
+     * @param delta 沿滚动方向的距离
+     * @param duration
+     */
+    private void startScroll(int delta, int duration) {
         switch (scrollOrientation) {
             case VERTICAL:
-                if (result == 1) {
-                    startY = getScrollY() - childHeight;
-                    addNext(1);
-                    addCount--;
-                    deltaY = childHeight * currentIndex - startY + addCount * childHeight;
-                } else {
-                    startY = getScrollY();
-                    deltaY = childHeight * currentIndex - startY + addCount * childHeight;
-                    addCount--;
-                }
-                setScrollY(startY);
-                duration = (Math.abs(deltaY)) * flingOffset;
+                mScroller.startScroll(getScrollX(), getScrollY(), 0, delta, duration);
                 break;
             case HORIZONTAL:
-                if (result == 1) {
-                    startX = getScrollX() - childWdith;
-                    addNext(1);
-                    addCount--;
-                    deltaX = childWdith * currentIndex - startX + addCount * childWdith;
-                } else {
-                    startX = getScrollX();
-                    deltaX = childWdith * currentIndex - startX + addCount * childWdith;
-                    addCount--;
-                }
-                setScrollX(startX);
-                duration = Math.abs(deltaX) * flingOffset;
+                mScroller.startScroll(getScrollX(), getScrollY(), delta, 0, duration);
                 break;
         }
-        mScroller.startScroll(startX, startY, deltaX, deltaY, duration);
-        invalidate();
+        postAnimationFrame();
     }
 
-    @Override
-    public void computeScroll() {
+    /**
+     * 在下一帧执行{@link #animateScroll()}
+     */
+    private void postAnimationFrame() {
+        if (animationFramePosted)
+            return;
+        animationFramePosted = true;
+        frameScheduler.postFrameCallback(animationFrameCallback);
+    }
+
+    private void removeAnimationFrame() {
+        if (!animationFramePosted)
+            return;
+        animationFramePosted = false;
+        frameScheduler.removeFrameCallback(animationFrameCallback);
+    }
+
+    /**
+     * 替换帧调度，已提交的帧及预取转移到新的调度中
+     * @param scheduler null: 使用{@link Choreographer}
+     */
+    void setFrameScheduler(FrameScheduler scheduler) {
+        if (scheduler == null)
+            scheduler = defaultFrameScheduler;
+        if (scheduler == frameScheduler)
+            return;
+        final boolean framePosted = animationFramePosted;
+        final boolean idlePosted = prefetchPosted;
+        removeAnimationFrame();
+        if (idlePosted)
+            frameScheduler.removeIdle(prefetchRunnable);
+        frameScheduler = scheduler;
+        if (framePosted)
+            postAnimationFrame();
+        if (idlePosted)
+            frameScheduler.postIdle(prefetchRunnable);
+    }
+
+    /**
+     * 每帧更新滚动位置，{@link #scrollTo(int, int)}会在同一帧中重新绘制
+     */
+    private void animateScroll() {
         //滑动没有结束时，进行的操作
         if (mScroller.computeScrollOffset()) {
-            int sy = 0;
-            int sx = 0;
-            int currX = mScroller.getCurrX();
-            int currY = mScroller.getCurrY();
+            final int currX = mScroller.getCurrX();
+            final int currY = mScroller.getCurrY();
+            //子控件轮转时位置不变，无需修正滚动距离
+            //快速滚动时一帧可能移动多页，连续轮转直到前后都有子控件
+            final boolean vertical = scrollOrientation == VERTICAL;
+            final boolean canRotate = getPageSize() > 0;
             switch (state) {
                 case STATE_PRE:
-                    boolean need = needAddPreOrNext(scrollOrientation == VERTICAL, -1) == -1;
-                    switch (scrollOrientation) {
-                        case VERTICAL:
-                            scrollTo(currX, currY + childHeight * alreadyAddCount);
-                            sy = getScrollY();
-                            if (need) {
-                                addPre(1);
-                                addCurrentIndex(1);
-                                setScrollY(sy + childHeight);
-                                alreadyAddCount ++;
-                            }
-                            break;
-                        case HORIZONTAL:
-                            scrollTo(currX + childWdith * alreadyAddCount, currY);
-                            sx = getScrollX();
-                            if (need) {
-                                addPre(1);
-                                addCurrentIndex(1);
-                                setScrollX(sx + childWdith);
-                                alreadyAddCount ++;
-                            }
-                            break;
+                    scrollTo(currX, currY);
+                    while (canRotate && needAddPreOrNext(vertical, -1) == -1) {
+                        addPre(1);
+                        addCurrentIndex(1);
                     }
                     break;
                 case STATE_NEXT:
-                    need = needAddPreOrNext(scrollOrientation == VERTICAL, 1) == 1;
-                    switch (scrollOrientation) {
-                        case VERTICAL:
-                            scrollTo(currX, currY - childHeight * alreadyAddCount);
-                            sy = getScrollY();
-                            if (need) {
-                                addNext(1);
-                                addCurrentIndex(-1);
-                                setScrollY(sy - childHeight);
-                                alreadyAddCount ++;
-                            }
-                            break;
-                        case HORIZONTAL:
-                            scrollTo(currX - childWdith * alreadyAddCount, currY);
-                            sx = getScrollX();
-                            if (need) {
-                                addNext(1);
-                                addCurrentIndex(-1);
-                                setScrollX(sx - childWdith);
-                                alreadyAddCount ++;
-                            }
-                            break;
+                    scrollTo(currX, currY);
+                    while (canRotate && needAddPreOrNext(vertical, 1) == 1) {
+                        addNext(1);
+                        addCurrentIndex(-1);
                     }
                     break;
                 default:
                     scrollTo(currX, currY);
                     break;
             }
-            postInvalidate();
+            postAnimationFrame();
         }
         //滑动结束时相关用于计数变量复位
         if (mScroller.isFinished()) {
-            alreadyAddCount = 0;
             if (scrolling) {
                 scrolling = false;
+                retargeted = false;
+                //一帧轮转多页时currentIndex可能不在终点，按滚动位置重新计算
+                if (getPageSize() > 0)
+                    syncCurrentIndex();
                 notifyChangeListener();
             }
+            if (!isSliding) {
+                disableLayers();
+                rebasePagesIfNeeded();
+                finishMetrics();
+                //停止后子控件内容可能改变
+                invalidateSnapshot(null);
+            }
         }
     }
 
     /**
-     * 根据速度获取需要添加多少个view
-     * @param velocity
-     * @return
+     * 每帧动画后，在本帧绘制完成后的空闲时间里预取滚动方向上的子控件
+     * 方向改变时取消之前的预取
+     * @param frameTimeNanos 本帧开始时间
      */
-    private int getAddCount(float velocity) {
-        float absv = Math.abs(velocity);
-        float offset = absv - MAX_SPEED;
-        int flingSpeedCount = offset > 0 ? (int) offset : 0;
-        return (int) (flingSpeedCount / MIN_SPEED / resistance + 1);
+    private void schedulePrefetch(long frameTimeNanos) {
+        final int direction;
+        if (isSliding)
+            direction = dragDirection;
+        else if (scrolling && !mScroller.isFinished())
+            direction = state;
+        else
+            direction = 0;
+        if (direction != prefetchDirection) {
+            cancelPrefetch();
+            prefetchDirection = direction;
+        }
+        if (direction == 0 || prefetchPosted)
+            return;
+        prefetchFrameNanos = frameTimeNanos;
+        prefetchPosted = true;
+        frameScheduler.postIdle(prefetchRunnable);
     }
 
-    private float getSpeedByAddCount(int addCount) {
-        return (addCount - 1) * resistance * MIN_SPEED + MAX_SPEED;
+    private void cancelPrefetch() {
+        if (prefetchPosted) {
+            frameScheduler.removeIdle(prefetchRunnable);
+            prefetchPosted = false;
+        }
+        prefetchDirection = 0;
     }
 
     /**
-     * 把{@link #children}中后num个view移到前面
-     * @param num
+     * 显示的及相邻的子控件在滚动时已测量({@link #measureNearbyPages()})，
+     * 这里处理再往前一个的子控件，使其进入相邻范围时不需要测量或加载
+     * 超出本帧时间时停止，下一帧再试
      */
-    private void addPre(int num) {
-        final int c = children.length;
-        final View[] temp = new View[num];
-        for (int i = c - 1; i >= 0 ; i--) {
-            final int offset = c - i;
-            if (offset <= num) {
-                temp[num - offset] = children[i];
-            }
-            final int pre = i - num;
-            if (pre >= 0) {
-                children[i] = children[pre];
-            } else {
-                children[i] = temp[i];
-            }
-            resetView(children[i], i);
+    private void prefetch() {
+        if (prefetchDirection == 0 || !hasMeasureSpec || firstMeasure || !computeVisiblePages())
+            return;
+        final long deadline = prefetchFrameNanos + getFrameIntervalNanos();
+        if (shouldDrawSnapshots())
+            prefetchSnapshots(deadline);
+        final int index = prefetchDirection > 0 ? lastVisibleIndex + 2 : firstVisibleIndex - 2;
+        if (index < 0 || index >= children.length)
+            return;
+        final View page = childAt(index);
+        if (page.getVisibility() == GONE && !(page instanceof ViewStub))
+            return;
+        final long start = System.nanoTime();
+        if (start + prefetchAverageNanos > deadline)
+            return;
+        if (page instanceof ViewStub) {
+            inflateLazyPage((ViewStub) page);
+        } else if (measurePage(page, lastWidthMeasureSpec, lastHeightMeasureSpec)) {
+            layoutPage(page);
+            final long time = System.nanoTime() - start;
+            prefetchAverageNanos = prefetchAverageNanos == 0 ? time : (prefetchAverageNanos * 3 + time) >> 2;
+        }
+    }
+
+    /**
+     * 使用截图绘制时，为显示的及滚动方向上下一个没有截图的子控件创建截图
+     * 本帧中还没有截图的子控件直接绘制
+     * @param deadline 本帧结束时间
+     */
+    private void prefetchSnapshots(long deadline) {
+        final int from = Math.max(prefetchDirection > 0 ? firstVisibleIndex : firstVisibleIndex - 1, 0);
+        final int to = Math.min(prefetchDirection > 0 ? lastVisibleIndex + 1 : lastVisibleIndex, children.length - 1);
+        for (int i = from; i <= to; i++) {
+            final View page = childAt(i);
+            if (page.getVisibility() != VISIBLE || page.getAnimation() != null
+                    || ((LayoutParams) page.getLayoutParams()).skipSnapshot
+                    || snapshotCache.get(page) != null)
+                continue;
+            final long start = System.nanoTime();
+            if (start + snapshotAverageNanos > deadline)
+                return;
+            if (createSnapshot(page)) {
+                final long time = System.nanoTime() - start;
+                snapshotAverageNanos = snapshotAverageNanos == 0 ? time : (snapshotAverageNanos * 3 + time) >> 2;
+            }
+        }
+    }
+
+    /**
+     * 手势或动画开始时，当前页及前后页按{@link #hardwareLayerPolicy}使用硬件层
+     * 长距离滚动时轮转进来的子控件只显示一两帧，创建硬件层反而更慢，所以不处理
+     */
+    private void enableLayers() {
+        if (!useHardwareLayer || layerPageCount > 0 || children == null || firstMeasure)
+            return;
+        final int c = children.length;
+        final int from = Math.max(currentIndex - 1, 0);
+        final int to = Math.min(currentIndex + 1, c - 1);
+        final boolean attached = getWindowToken() != null;
+        for (int i = from; i <= to; i++) {
+            final View page = childAt(i);
+            if (page.getVisibility() != VISIBLE || page.getLayerType() != LAYER_TYPE_NONE)
+                continue;
+            if (hardwareLayerPolicy != null && !hardwareLayerPolicy.shouldUseHardwareLayer(this, page))
+                continue;
+            page.setLayerType(LAYER_TYPE_HARDWARE, null);
+            if (attached)
+                page.buildLayer();
+            layerPages[layerPageCount++] = page;
+        }
+    }
+
+    /**
+     * 手势及动画结束时，恢复子控件的layer type
+     */
+    private void disableLayers() {
+        for (int i = 0; i < layerPageCount; i++) {
+            layerPages[i].setLayerType(LAYER_TYPE_NONE, null);
+            layerPages[i] = null;
+        }
+        layerPageCount = 0;
+    }
+
+    /**
+     * 子控件被移除(如view type改变时被替换)时，若由{@link #enableLayers()}开启了硬件层，恢复其layer type
+     * 并从{@link #layerPages}中移除
+     * @param page
+     */
+    private void disableLayer(View page) {
+        for (int i = 0; i < layerPageCount; i++) {
+            if (layerPages[i] != page)
+                continue;
+            page.setLayerType(LAYER_TYPE_NONE, null);
+            layerPageCount --;
+            System.arraycopy(layerPages, i + 1, layerPages, i, layerPageCount - i);
+            layerPages[layerPageCount] = null;
+            return;
+        }
+    }
+
+    /**
+     * 根据速度获取需要添加多少个view
+     * @param velocity
+     * @return
+     */
+    private int getAddCount(float velocity) {
+        final int size = getPageSize();
+        //velocity > 0: 向前滑动
+        final int moved = velocity > 0
+                ? currentIndex * size - getPageScroll()
+                : getPageScroll() - currentIndex * size;
+        return PageMath.getAddCount(moved, velocity, size, resistance);
+    }
+
+    /**
+     * {@link #getAddCount(float)}的反函数，静止时以此速度滑动将移动addCount页
+     * @param addCount
+     * @return
+     */
+    private float getSpeedByAddCount(int addCount) {
+        return PageMath.getSpeedByAddCount(addCount, getPageSize(), resistance);
+    }
+
+    /**
+     * 以velocity的初速度减速滑动delta距离所需的时间，再乘以{@link #flingOffset}
+     * @param delta    滑动距离
+     * @param velocity 速度，px/s
+     * @return ms
+     */
+    private int getFlingDuration(int delta, float velocity) {
+        return PageMath.getFlingDuration(delta, velocity, minSpeed) * flingOffset;
+    }
+
+    /**
+     * 把{@link #children}中后num个view移到前面
+     * 只移动{@link #head}，并重新设置被移动的num个view的位置
+     * @param num
+     */
+    private void addPre(int num) {
+        metrics.rotationCount += num;
+        final int c = children.length;
+        head = PageMath.rotate(head, -num, c);
+        firstPage -= num;
+        for (int i = 0; i < num; i++) {
+            resetView(childAt(i), i);
+        }
+        placeMirrorPages();
+        if (adapter != null) {
+            final int next = getPagePosition(childAt(num));
+            for (int i = num - 1; i >= 0; i--) {
+                bindPage(i, next - (num - i));
+            }
         }
     }
 
     /**
      * 把{@link #children}中前num个view移到后面
+     * 只移动{@link #head}，并重新设置被移动的num个view的位置
      * @param num
      */
     private void addNext(int num) {
+        metrics.rotationCount += num;
         final int c = children.length;
-        final View[] temp = new View[num];
-        for (int i = 0 ; i < c ; i ++) {
-            if (i < num) {
-                temp[i] = children[i];
+        head = PageMath.rotate(head, num, c);
+        firstPage += num;
+        for (int i = c - num; i < c; i++) {
+            resetView(childAt(i), i);
+        }
+        placeMirrorPages();
+        if (adapter != null) {
+            final int pre = getPagePosition(childAt(c - num - 1));
+            for (int i = c - num; i < c; i++) {
+                bindPage(i, pre + (i - c + num + 1));
             }
-            final int next = i + num;
-            if (next < c) {
-                children[i] = children[next];
+        }
+    }
+
+//start-------------- adapter
+
+    /**
+     * 当前页及前后页按{@link #currentIndex}重新绑定数据
+     * @param position 当前页需要显示的数据位置
+     */
+    private void bindPagesAround(int position) {
+        final int c = children.length;
+        for (int i = 0; i < c; i++) {
+            bindPage(i, position + i - currentIndex);
+        }
+    }
+
+    /**
+     * 将{@link #children}中index位置的子控件绑定为position的数据，
+     * 若view type不同，则从缓存中取出(或创建)对应类型的子控件，替换原子控件
+     * @param index    在{@link #children}中的下标
+     * @param position 数据位置，可超出[0, count)，按循环处理
+     */
+    private void bindPage(int index, int position) {
+        final int count = adapter.getItemCount();
+        position = ((position % count) + count) % count;
+        View page = childAt(index);
+        final int viewType = adapter.getItemViewType(position);
+        LayoutParams lp = (LayoutParams) page.getLayoutParams();
+        if (lp.viewType != viewType) {
+            final View newPage = obtainPage(viewType);
+            final int childIndex = toChildrenIndex(index);
+            removeViewInLayout(page);
+            scrapPage(page);
+            addPageInLayout(newPage, childIndex);
+            setSlot(childIndex, newPage);
+            page = newPage;
+            lp = (LayoutParams) page.getLayoutParams();
+            resetView(page, index);
+        }
+        lp.position = position;
+        lp.itemId = adapter.getItemId(position);
+        lp.itemChanged = false;
+        invalidateSnapshot(page);
+        //动画中轮转进来的子控件每次都会重新绑定，截图只用一次，本次动画中直接绘制
+        if (scrolling && snapshotCache != null)
+            lp.skipSnapshot = true;
+        adapter.onBindView(page, position);
+    }
+
+    /**
+     * 从缓存中取出或通过{@link Adapter#onCreateView(ScrollLayout, int)}创建子控件
+     * @param viewType
+     * @return
+     */
+    private View obtainPage(int viewType) {
+        View page = getRecycledPagePool().getRecycledPage(viewType);
+        if (page == null) {
+            page = adapter.onCreateView(this, viewType);
+            if (page == null)
+                throw new NullPointerException("Adapter.onCreateView must not return null.");
+        }
+        ViewGroup.LayoutParams p = page.getLayoutParams();
+        final LayoutParams lp;
+        if (p == null) {
+            lp = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
+        } else if (!checkLayoutParams(p)) {
+            lp = (LayoutParams) generateLayoutParams(p);
+        } else {
+            lp = (LayoutParams) p;
+        }
+        lp.viewType = viewType;
+        page.setLayoutParams(lp);
+        return page;
+    }
+
+    private void scrapPage(View page) {
+        final LayoutParams lp = (LayoutParams) page.getLayoutParams();
+        lp.position = -1;
+        lp.itemId = NO_ITEM_ID;
+        lp.itemChanged = false;
+        lp.slot = -1;
+        lp.skipSnapshot = false;
+        disableLayer(page);
+        getRecycledPagePool().putRecycledPage(page);
+    }
+
+    /**
+     * 在布局或动画过程中(如{@link #animateScroll()})添加子控件，不会触发{@link #requestLayout()}，
+     * 若已测量过，直接测量并布局此子控件
+     * @param page
+     * @param index
+     */
+    private void addPageInLayout(View page, int index) {
+        addViewInLayout(page, index, page.getLayoutParams(), true);
+        if (hasMeasureSpec) {
+            measurePage(page, lastWidthMeasureSpec, lastHeightMeasureSpec);
+            layoutPage(page);
+        }
+    }
+
+    /**
+     * 根据{@link #adapter}重新创建所有子控件
+     * @param position 当前页需要显示的数据位置
+     */
+    private void setupAdapterPages(int position) {
+        adapterSetupPending = false;
+        scrapAllPages();
+        final int count = adapter != null ? adapter.getItemCount() : 0;
+        if (count == 0) {
+            children = null;
+            requestLayout();
+            invalidate();
+            return;
+        }
+        position = ((position % count) + count) % count;
+        pendingAdapterPosition = position;
+        if (children == null || children.length != ADAPTER_PAGE_COUNT)
+            children = new View[ADAPTER_PAGE_COUNT];
+        head = 0;
+        firstPage = 0;
+        for (int i = 0; i < ADAPTER_PAGE_COUNT; i++) {
+            final int p = ((position + i - 1) % count + count) % count;
+            final View page = obtainPage(adapter.getItemViewType(p));
+            final LayoutParams lp = (LayoutParams) page.getLayoutParams();
+            lp.position = p;
+            lp.itemId = adapter.getItemId(p);
+            adapter.onBindView(page, p);
+            addView(page);
+            setSlot(i, page);
+        }
+    }
+
+    /**
+     * 将所有子控件移除并放入缓存
+     */
+    private void scrapAllPages() {
+        final int c = getChildCount();
+        for (int i = 0; i < c; i++) {
+            final View v = getChildAt(i);
+            final ViewGroup.LayoutParams p = v.getLayoutParams();
+            if (p instanceof LayoutParams && ((LayoutParams) p).viewType != INVALID_VIEW_TYPE)
+                scrapPage(v);
+        }
+        removeAllViews();
+        firstMeasure = true;
+    }
+
+    private void onAdapterDataChanged() {
+        final int count = adapter.getItemCount();
+        if (children == null || firstMeasure) {
+            //还未布局，在下一帧或attach时统一重新创建
+            adapterSetupPending = true;
+            postItemUpdates();
+            return;
+        }
+        if (count == 0) {
+            setupAdapterPages(0);
+            return;
+        }
+        if (!mScroller.isFinished()) {
+            //直接停在动画终点，按终点重新计算currentIndex，否则会以滚动中途的currentIndex绑定数据
+            mScroller.abortAnimation();
+            scrollTo(mScroller.getFinalX(), mScroller.getFinalY());
+            if (getPageSize() > 0)
+                syncCurrentIndex();
+        }
+        int position = adapter.hasStableIds() ? findItemPosition(getCurrentItemId(), getCurrentPosition()) : -1;
+        if (position < 0)
+            position = Math.min(getCurrentPosition(), count - 1);
+        bindPagesAround(position);
+        invalidate();
+    }
+
+    /**
+     * 子控件已按数据绑定并布局时，数据的插入、删除、移动只修改子控件记录的数据位置，
+     * 在{@link #applyItemUpdates()}中重新绑定
+     */
+    private boolean canUpdateItemsInPlace() {
+        return adapter != null && children != null && !firstMeasure && adapter.getItemCount() > 0;
+    }
+
+    private void onItemsChanged(int start, int count) {
+        if (!canUpdateItemsInPlace()) {
+            onAdapterDataChanged();
+            return;
+        }
+        for (View page : children) {
+            final LayoutParams lp = (LayoutParams) page.getLayoutParams();
+            if (lp.position >= start && lp.position < start + count)
+                lp.itemChanged = true;
+        }
+        postItemUpdates();
+    }
+
+    private void onItemsInserted(int start, int count) {
+        if (!canUpdateItemsInPlace()) {
+            pendingAdapterPosition = PageMath.positionAfterInsert(pendingAdapterPosition, start, count);
+            onAdapterDataChanged();
+            return;
+        }
+        for (View page : children) {
+            final LayoutParams lp = (LayoutParams) page.getLayoutParams();
+            lp.position = PageMath.positionAfterInsert(lp.position, start, count);
+        }
+        postItemUpdates();
+    }
+
+    /**
+     * 数据被删除的子控件改为显示其后的数据
+     */
+    private void onItemsRemoved(int start, int count) {
+        if (!canUpdateItemsInPlace()) {
+            final int position = PageMath.positionAfterRemove(pendingAdapterPosition, start, count);
+            pendingAdapterPosition = position < 0 ? start : position;
+            onAdapterDataChanged();
+            return;
+        }
+        for (View page : children) {
+            final LayoutParams lp = (LayoutParams) page.getLayoutParams();
+            final int position = PageMath.positionAfterRemove(lp.position, start, count);
+            if (position < 0) {
+                lp.position = start;
+                lp.itemChanged = true;
             } else {
-                children[i] = temp[next - c];
+                lp.position = position;
             }
-            resetView(children[i], i);
         }
+        postItemUpdates();
     }
 
-//end---------------事件处理
+    private void onItemsMoved(int from, int to) {
+        if (!canUpdateItemsInPlace()) {
+            pendingAdapterPosition = PageMath.positionAfterMove(pendingAdapterPosition, from, to);
+            onAdapterDataChanged();
+            return;
+        }
+        for (View page : children) {
+            final LayoutParams lp = (LayoutParams) page.getLayoutParams();
+            lp.position = PageMath.positionAfterMove(lp.position, from, to);
+        }
+        postItemUpdates();
+    }
 
-    private void notifyChangeListener() {
-        if (onChangeListener != null) {
-            int index = currentIndex;
-            if (onlyTwoChildren) {
-                View v = children[index];
-                if (v == getChildAt(0)) {
-                    onChangeListener.changeTo(v, 0);
-                } else if (v == getChildAt(1)) {
-                    onChangeListener.changeTo(v, 1);
-                } else {
-                    v = children[(index + 2) % children.length];
-                    onChangeListener.changeTo(v, getViewIndex(v));
-                }
-                return;
-            }
-            final View v = children[index];
-            onChangeListener.changeTo(v, getViewIndex(v));
+    /**
+     * 同一帧内的多次修改只在下一帧绑定一次
+     */
+    private void postItemUpdates() {
+        if (itemUpdatePosted)
+            return;
+        itemUpdatePosted = true;
+        postOnAnimation(itemUpdateRunnable);
+    }
+
+    /**
+     * 以当前页的数据位置为准，只重新绑定数据位置不连续或数据内容修改的子控件，不停止动画
+     */
+    private void applyItemUpdates() {
+        if (adapterSetupPending) {
+            setupPendingAdapterPages();
+            return;
+        }
+        if (!canUpdateItemsInPlace())
+            return;
+        final int count = adapter.getItemCount();
+        if (count == 0) {
+            setupAdapterPages(0);
+            return;
         }
+        final int position = (getCurrentPosition() % count + count) % count;
+        final int c = children.length;
+        for (int i = 0; i < c; i++) {
+            final int p = ((position + i - currentIndex) % count + count) % count;
+            final LayoutParams lp = (LayoutParams) childAt(i).getLayoutParams();
+            if (lp.position != p || lp.itemChanged)
+                bindPage(i, p);
+        }
+        invalidate();
+    }
+
+    /**
+     * 执行还未布局时合并的数据修改
+     */
+    private void setupPendingAdapterPages() {
+        setupAdapterPages(children == null ? 0 : pendingAdapterPosition);
+    }
+
+    /**
+     * 获取子控件的位置
+     * {@link Adapter}模式下为数据位置，否则为子控件在layout中的下标，克隆控件为原控件的下标
+     */
+    private static int getPagePosition(View page) {
+        return ((LayoutParams) page.getLayoutParams()).position;
     }
 
-    private int getViewIndex(View v) {
-        final int l = getChildCount();
-        for (int i = 0 ; i < l ; i ++) {
-            final View c = getChildAt(i);
-            if (c == v)
-                return i;
+    /**
+     * 从near开始向两侧查找id对应的数据位置，数据变化较小时很快找到
+     * @param id   {@link Adapter#getItemId(int)}
+     * @param near 上次的数据位置
+     * @return -1: 找不到
+     */
+    private int findItemPosition(long id, int near) {
+        if (id == NO_ITEM_ID)
+            return -1;
+        final int count = adapter.getItemCount();
+        near = Math.max(0, Math.min(near, count - 1));
+        for (int d = 0; d <= count / 2; d++) {
+            if (adapter.getItemId((near + d) % count) == id)
+                return (near + d) % count;
+            if (d != 0 && adapter.getItemId((near - d + count) % count) == id)
+                return (near - d + count) % count;
         }
         return -1;
     }
 
-    private int getChildrenIndex(View v) {
-        final int l = children.length;
-        for (int i = 0 ; i < l ; i ++) {
-            final View c = children[i];
-            if (v == c)
-                return i;
+//end---------------- adapter
+
+//end---------------事件处理
+
+    private void notifyChangeListener() {
+        if (metricsActive && upTimeNanos != 0) {
+            metrics.upToChangeNanos = System.nanoTime() - upTimeNanos;
+            upTimeNanos = 0;
         }
-        return -1;
+        if (onChangeListener != null) {
+            final View v = childAt(currentIndex);
+            final int position = getPagePosition(v);
+            //克隆模式下回调原控件
+            onChangeListener.changeTo(adapter != null ? v : getChildAt(position), position);
+        }
+    }
+
+    /**
+     * 获取v的逻辑位置，镜像模式下为第一次出现的逻辑位置
+     */
+    private int getLogicalIndex(View v) {
+        return toLogicalIndex(((LayoutParams) v.getLayoutParams()).slot);
     }
 //start-------------- public method
 
@@ -1078,9 +2464,13 @@ public class ScrollLayout extends ViewGroup {
     }
 
     /**
-     * 若通过{@link #addView(View)}新添加了子View，需调用此方法
+     * 若通过{@link #addView(View)}新添加了子View，需调用此方法，下次测量时重置所有子控件位置
+     * 已布局后增删子控件可使用{@link #insertPage(int, View)}、{@link #removePage(int)}，当前页保持不动
      */
     public void notifyAddChildViewFinish() {
+        //子控件个数可能已不是2个，克隆控件及镜像模式按新的子控件重新处理
+        if (onlyTwoChildren)
+            exitTwoChildren();
         final int c = getChildCount();
         if (c == 0) {
 
@@ -1093,6 +2483,154 @@ public class ScrollLayout extends ViewGroup {
         }
     }
 
+    /**
+     * 开始批量修改子控件，{@link #insertPage(int, View)}、{@link #removePage(int)}、{@link #movePage(int, int)}
+     * 在{@link #endPageUpdate()}时统一更新子控件位置，可嵌套
+     */
+    public void beginPageUpdate() {
+        if (pageUpdateDepth++ > 0)
+            return;
+        pageUpdateReset = !canUpdatePagesInPlace();
+        updateCurrentPage = pageUpdateReset ? null : childAt(currentIndex);
+        updateCurrentRemoved = false;
+    }
+
+    /**
+     * 结束批量修改，当前页保持不动，只移动位置改变的子控件
+     * 修改前还未布局，或修改前后子控件少于3个时，同{@link #notifyAddChildViewFinish()}并重新布局
+     */
+    public void endPageUpdate() {
+        if (pageUpdateDepth == 0)
+            throw new IllegalStateException("endPageUpdate without beginPageUpdate.");
+        if (--pageUpdateDepth > 0)
+            return;
+        final View current = updateCurrentPage;
+        updateCurrentPage = null;
+        if (pageUpdateReset || getChildCount() < 3) {
+            firstMeasure = true;
+            notifyAddChildViewFinish();
+            requestLayout();
+            invalidate();
+            return;
+        }
+        syncPagesToChildren(current);
+        if (updateCurrentRemoved && mScroller.isFinished() && !isSliding)
+            notifyChangeListener();
+    }
+
+    /**
+     * 在index处插入子控件，不需要调用{@link #notifyAddChildViewFinish()}
+     * @param index [0, getChildCount()]
+     * @param page
+     */
+    public void insertPage(int index, View page) {
+        final int c = getChildCount();
+        if (index < 0 || index > c)
+            throw new IndexOutOfBoundsException("index must be equals or greater than 0 and not greater than " + c);
+        beginPageUpdate();
+        if (pageUpdateReset) {
+            addView(page, index);
+        } else {
+            ViewGroup.LayoutParams p = page.getLayoutParams();
+            if (p == null)
+                p = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
+            else if (!checkLayoutParams(p))
+                p = generateLayoutParams(p);
+            page.setLayoutParams(p);
+            addPageInLayout(page, index);
+        }
+        endPageUpdate();
+    }
+
+    /**
+     * 移除index处的子控件，若正在显示，显示其后的子控件
+     * @param index [0, getChildCount())
+     */
+    public void removePage(int index) {
+        final int c = getChildCount();
+        if (index < 0 || index >= c)
+            throw new IndexOutOfBoundsException("index must be equals or greater than 0 and less than " + c);
+        beginPageUpdate();
+        final View page = getChildAt(index);
+        if (pageUpdateReset) {
+            removeViewAt(index);
+        } else {
+            if (page == updateCurrentPage) {
+                updateCurrentPage = getChildAt((index + 1) % c);
+                updateCurrentRemoved = true;
+            }
+            removeViewInLayout(page);
+            invalidateSnapshot(page);
+            ((LayoutParams) page.getLayoutParams()).slot = -1;
+        }
+        endPageUpdate();
+    }
+
+    /**
+     * 将from处的子控件移到to处
+     * @param from [0, getChildCount())
+     * @param to   [0, getChildCount())
+     */
+    public void movePage(int from, int to) {
+        final int c = getChildCount();
+        if (from < 0 || from >= c || to < 0 || to >= c)
+            throw new IndexOutOfBoundsException("index must be equals or greater than 0 and less than " + c);
+        if (from == to)
+            return;
+        beginPageUpdate();
+        final View page = getChildAt(from);
+        if (pageUpdateReset) {
+            removeViewAt(from);
+            addView(page, to);
+        } else {
+            detachViewFromParent(from);
+            attachViewToParent(page, to, page.getLayoutParams());
+        }
+        endPageUpdate();
+    }
+
+    /**
+     * 非adapter模式下已布局，且不是两个子控件时，可只更新位置改变的子控件
+     */
+    private boolean canUpdatePagesInPlace() {
+        return adapter == null && !onlyTwoChildren && !firstMeasure && children != null
+                && children.length == getChildCount();
+    }
+
+    /**
+     * 子控件增删或移动后，{@link #children}重新按子控件顺序排列，
+     * current的逻辑位置及滚动位置不变，translation不变的子控件不会重绘
+     * @param current 修改后需要显示的子控件
+     */
+    private void syncPagesToChildren(View current) {
+        final int c = getChildCount();
+        if (children.length != c)
+            children = new View[c];
+        lazyPageCount = 0;
+        for (int i = 0; i < c; i++) {
+            final View page = getChildAt(i);
+            final LayoutParams lp = (LayoutParams) page.getLayoutParams();
+            children[i] = page;
+            lp.slot = i;
+            lp.position = i;
+            if (page instanceof ViewStub)
+                lazyPageCount ++;
+        }
+        //当前页不能在首尾
+        final int index = Math.max(1, Math.min(currentIndex, c - 2));
+        firstPage += currentIndex - index;
+        currentIndex = index;
+        head = (((LayoutParams) current.getLayoutParams()).slot - index + c) % c;
+        for (int i = 0; i < c; i++) {
+            resetView(childAt(i), i);
+        }
+        if (hasMeasureSpec && computeVisiblePages())
+            measureNearbyPages();
+        transformPages();
+        inflateNearbyPages();
+        invalidate();
+    }
+
     public @ScrollOrientation int getScrollOrientation() {
         return scrollOrientation;
     }
@@ -1115,6 +2653,33 @@ public class ScrollLayout extends ViewGroup {
         this.do3DAnim = do3DAnim;
     }
 
+    public boolean isUseHardwareLayer() {
+        return useHardwareLayer;
+    }
+
+    /**
+     * 设置滚动时当前页及前后页是否使用硬件层，默认false
+     * 开启后，动画期间子控件将作为纹理绘制，适合内容复杂的子控件
+     * @param useHardwareLayer
+     */
+    public void setUseHardwareLayer(boolean useHardwareLayer) {
+        this.useHardwareLayer = useHardwareLayer;
+        if (!useHardwareLayer)
+            disableLayers();
+    }
+
+    public HardwareLayerPolicy getHardwareLayerPolicy() {
+        return hardwareLayerPolicy;
+    }
+
+    /**
+     * 决定哪些子控件使用硬件层，null: 所有子控件都使用
+     * @param hardwareLayerPolicy
+     */
+    public void setHardwareLayerPolicy(HardwareLayerPolicy hardwareLayerPolicy) {
+        this.hardwareLayerPolicy = hardwareLayerPolicy;
+    }
+
     public boolean isCanScrollByTouch() {
         return canScrollByTouch;
     }
@@ -1133,6 +2698,7 @@ public class ScrollLayout extends ViewGroup {
 
     /**
      * 设置自由滑动时时间倍数[1,+)，1：速度最快
+     * 自由滑动时间由速度及距离决定，最长为{@link PageMath#MAX_FLING_DURATION} * flingOffset ms
      * @param flingOffset
      */
     public void setFlingOffset(int flingOffset) {
@@ -1147,6 +2713,7 @@ public class ScrollLayout extends ViewGroup {
 
     /**
      * 设置回位时间倍数[1,+)，1: 速度最快
+     * 回位时间为 回位距离(dp) * toNormalOffset ms
      * @param toNormalOffset
      */
     public void setToNormalOffset(int toNormalOffset) {
@@ -1172,56 +2739,73 @@ public class ScrollLayout extends ViewGroup {
     public void reset() {
         resetChildren();
         currentIndex = startIndex == 0 ? 1 : startIndex;
-        alreadyAddCount = 0;
-        switch (scrollOrientation) {
-            case VERTICAL:
-                scrollTo(0, currentIndex * childHeight);
-                break;
-            case HORIZONTAL:
-                scrollTo(currentIndex * childWdith, 0);
-                break;
-        }
+        scrollToCurrent();
         if (startIndex == 0) {
             gotoChild(startIndex, false);
         }
     }
 
     public void toNext(boolean smooth) {
+        if (smooth && retargetScroll(1))
+            return;
         if (!mScroller.isFinished())
             mScroller.abortAnimation();
         if (smooth)
-            toNextAction(-MAX_SPEED);
+            toNextAction(-getSpeedByAddCount(1));
         else {
             addNext(1);
+            scrollByPages(1);
+            rebasePagesIfNeeded();
             invalidate();
             notifyChangeListener();
         }
     }
 
     public void toPre(boolean smooth) {
+        if (smooth && retargetScroll(-1))
+            return;
         if (!mScroller.isFinished())
             mScroller.abortAnimation();
         if (smooth)
-            toPreAction(MAX_SPEED);
+            toPreAction(getSpeedByAddCount(1));
         else {
             addPre(1);
+            scrollByPages(-1);
+            rebasePagesIfNeeded();
             invalidate();
             notifyChangeListener();
         }
     }
 
     public void gotoChild(int index, boolean smooth) {
+        if (adapter != null) {
+            gotoPosition(index, smooth);
+            return;
+        }
         int c = getChildCount();
-        if (onlyTwoChildren)
+        if (onlyTwoChildren && !mirrorTwoChildren)
             c -= 2;
         if (index < 0 || index >= c) {
             throw new IndexOutOfBoundsException("index must be equals or greater than 0 and less than " + c);
         }
+        final View v = getChildAt(index);
+        if (smooth && isRetargetable()) {
+            final int l = children.length;
+            int offset = getLogicalIndex(v) - (getTargetPage() % l + l) % l;
+            if (onlyTwoChildren) {
+                //克隆的控件内容相同，只需移动奇数页，选择较近的方向
+                if ((offset & 1) == 0)
+                    return;
+                if (Math.abs(offset) > 1)
+                    offset = offset > 0 ? -1 : 1;
+            }
+            retargetScroll(offset);
+            return;
+        }
         if (!mScroller.isFinished()) {
             mScroller.abortAnimation();
         }
-        final View v = getChildAt(index);
-        index = getChildrenIndex(v);
+        index = getLogicalIndex(v);
 
         if (currentIndex == index)
             return;
@@ -1235,6 +2819,8 @@ public class ScrollLayout extends ViewGroup {
                 toNextAction(-getSpeedByAddCount(offset));
             else {
                 addNext(offset);
+                scrollByPages(offset);
+                rebasePagesIfNeeded();
                 invalidate();
                 notifyChangeListener();
             }
@@ -1244,12 +2830,140 @@ public class ScrollLayout extends ViewGroup {
                 toPreAction(getSpeedByAddCount(offset));
             else {
                 addPre(offset);
+                scrollByPages(-offset);
+                rebasePagesIfNeeded();
                 invalidate();
                 notifyChangeListener();
             }
         }
     }
 
+    /**
+     * {@link Adapter}模式下切换到position的数据，选择较近的方向滚动
+     * @param position
+     * @param smooth
+     */
+    private void gotoPosition(int position, boolean smooth) {
+        final int count = adapter.getItemCount();
+        if (position < 0 || position >= count) {
+            throw new IndexOutOfBoundsException("position must be equals or greater than 0 and less than " + count);
+        }
+        if (children == null || firstMeasure) {
+            pendingAdapterPosition = position;
+            return;
+        }
+        if (smooth && isRetargetable()) {
+            //动画目标页的数据位置，逻辑位置连续的子控件数据位置也连续
+            final int target = ((getPagePosition(childAt(0)) + getTargetPage()) % count + count) % count;
+            final int nextOffset = (position - target + count) % count;
+            retargetScroll(nextOffset <= count - nextOffset ? nextOffset : nextOffset - count);
+            return;
+        }
+        if (!mScroller.isFinished()) {
+            mScroller.abortAnimation();
+        }
+        final int current = getCurrentPosition();
+        if (current == position)
+            return;
+        final int nextOffset = (position - current + count) % count;
+        final int preOffset = count - nextOffset;
+        if (!smooth) {
+            bindPagesAround(position);
+            invalidate();
+            notifyChangeListener();
+        } else if (nextOffset <= preOffset) {
+            toNextAction(-getSpeedByAddCount(nextOffset));
+        } else {
+            toPreAction(getSpeedByAddCount(preOffset));
+        }
+    }
+
+    /**
+     * 设置{@link Adapter}，设置后将移除所有子控件，由adapter创建{@link #ADAPTER_PAGE_COUNT}个子控件并循环复用
+     * 设置为null时退出adapter模式
+     * @param adapter
+     */
+    public void setAdapter(Adapter adapter) {
+        if (this.adapter == adapter)
+            return;
+        if (!mScroller.isFinished()) {
+            mScroller.abortAnimation();
+        }
+        if (this.adapter != null) {
+            this.adapter.unregisterObserver(adapterObserver);
+            scrapAllPages();
+            if (!sharedPagePool && pagePool != null)
+                pagePool.clear();
+        } else {
+            removeAllViews();
+        }
+        this.adapter = adapter;
+        onlyTwoChildren = false;
+        mirrorTwoChildren = false;
+        dirtyMirrorCount = 0;
+        if (adapter != null) {
+            adapter.registerObserver(adapterObserver);
+        }
+        setupAdapterPages(0);
+    }
+
+    public Adapter getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * 设置子控件缓存池，多个使用相同view type的layout(如RecyclerView中的多个item)可共享同一个缓存池
+     * @param pool null则使用layout自己的缓存池
+     */
+    public void setRecycledPagePool(RecycledPagePool pool) {
+        if (pagePool == pool)
+            return;
+        if (pagePool != null && !sharedPagePool)
+            pagePool.clear();
+        pagePool = pool;
+        sharedPagePool = pool != null;
+    }
+
+    public RecycledPagePool getRecycledPagePool() {
+        if (pagePool == null) {
+            pagePool = new RecycledPagePool();
+            sharedPagePool = false;
+        }
+        return pagePool;
+    }
+
+    /**
+     * {@link Adapter}模式下，将所有子控件放回{@link RecycledPagePool}
+     * 适用于layout被移出屏幕或被复用(如RecyclerView.Adapter#onViewRecycled)的情况
+     * 再次attach到window或调用{@link Adapter#notifyDataSetChanged()}时会从缓存池中取出子控件重新绑定
+     */
+    public void recyclePages() {
+        if (adapter == null || children == null)
+            return;
+        if (!firstMeasure)
+            pendingAdapterPosition = getCurrentPosition();
+        if (!mScroller.isFinished()) {
+            mScroller.abortAnimation();
+        }
+        scrapAllPages();
+        children = null;
+    }
+
+    /**
+     * {@link Adapter}模式下，获取当前页的数据位置
+     * 非adapter模式下同{@link #getCurrentViewIndex()}
+     * @return
+     */
+    public int getCurrentPosition() {
+        if (adapter == null)
+            return getCurrentViewIndex();
+        if (children == null)
+            return -1;
+        if (firstMeasure)
+            return pendingAdapterPosition;
+        return getPagePosition(childAt(currentIndex));
+    }
+
     /**
      * 获取当前view在{@link #children}中的下标
      * @return
@@ -1259,26 +2973,109 @@ public class ScrollLayout extends ViewGroup {
     }
 
     /**
-     * 获取当前view在layout中的下标
-     * @return
+     * 获取当前view在layout中的下标，克隆模式下为对应原控件的下标
+     * {@link Adapter}模式下为当前子控件的槽位({@link LayoutParams}中记录，与layout中的下标相同)，数据位置使用{@link #getCurrentPosition()}
+     * @return -1: adapter模式下没有数据
      */
     public int getCurrentViewIndex() {
-        return getViewIndex(children[currentIndex]);
+        if (adapter != null) {
+            if (children == null)
+                return -1;
+            return ((LayoutParams) childAt(currentIndex).getLayoutParams()).slot;
+        }
+        return getPagePosition(childAt(currentIndex));
     }
 
     /**
-     * 告知layout 此View更改了状态，并通知{@link #twoChildrenAdapter}将状态同步
+     * {@link Adapter#hasStableIds()}时，获取当前页的{@link Adapter#getItemId(int)}
+     * @return {@link #NO_ITEM_ID}: 非adapter模式或还未绑定数据
+     */
+    public long getCurrentItemId() {
+        if (adapter == null || children == null || firstMeasure)
+            return NO_ITEM_ID;
+        return ((LayoutParams) childAt(currentIndex).getLayoutParams()).itemId;
+    }
+
+    /**
+     * 告知layout 此View更改了状态，{@link #twoChildrenAdapter}将状态同步到对应的控件
+     * 对应的控件显示或即将显示时，在下一帧同步，否则在滚动到附近时同步；多次修改只同步一次
+     * {@link TwoChildrenAdapter#bindViewData(View, View)}中引起的修改不会再次同步
      * @param changedView
      */
     public void notifyViewChanged(View changedView) {
-        final int c = getChildCount();
-        for (int i = 0 ; i < c; i ++) {
-            final View v = getChildAt(i);
-            if (v == changedView) {
-                final int index = (i + 2) % c;
-                twoChildrenAdapter.bindViewData(changedView, getChildAt(index));
-                break;
+        invalidateSnapshot(null);
+        if (!onlyTwoChildren || mirrorTwoChildren || syncingMirror)
+            return;
+        final ViewGroup.LayoutParams p = changedView.getLayoutParams();
+        if (!(p instanceof LayoutParams) || ((LayoutParams) p).mirror == null)
+            return;
+        final LayoutParams lp = (LayoutParams) p;
+        final View mirror = lp.mirror;
+        //以最后修改的控件为准
+        if (lp.mirrorDirty) {
+            lp.mirrorDirty = false;
+            dirtyMirrorCount --;
+        }
+        final LayoutParams mirrorLp = (LayoutParams) mirror.getLayoutParams();
+        if (!mirrorLp.mirrorDirty) {
+            mirrorLp.mirrorDirty = true;
+            dirtyMirrorCount ++;
+        }
+        if (!mirrorSyncPosted && isPageNearby(mirror)) {
+            mirrorSyncPosted = true;
+            postOnAnimation(mirrorSyncRunnable);
+        }
+    }
+
+    /**
+     * 是否是显示的或相邻的子控件，还未布局时返回true
+     */
+    private boolean isPageNearby(View page) {
+        if (!computeVisiblePages())
+            return true;
+        final int from = Math.max(firstVisibleIndex - 1, 0);
+        final int to = Math.min(lastVisibleIndex + 1, children.length - 1);
+        for (int i = from; i <= to; i++) {
+            if (childAt(i) == page)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * 同步显示的及相邻的需要同步的控件
+     */
+    private void syncNearbyMirrors() {
+        if (dirtyMirrorCount == 0)
+            return;
+        if (!computeVisiblePages()) {
+            final int c = getChildCount();
+            for (int i = 0; i < c; i++) {
+                syncMirror(getChildAt(i));
             }
+            return;
+        }
+        final int from = Math.max(firstVisibleIndex - 1, 0);
+        final int to = Math.min(lastVisibleIndex + 1, children.length - 1);
+        for (int i = from; i <= to; i++) {
+            syncMirror(childAt(i));
+        }
+    }
+
+    /**
+     * 若view需要同步，从对应的控件同步状态
+     */
+    private void syncMirror(View view) {
+        final LayoutParams lp = (LayoutParams) view.getLayoutParams();
+        if (!lp.mirrorDirty)
+            return;
+        lp.mirrorDirty = false;
+        dirtyMirrorCount --;
+        syncingMirror = true;
+        try {
+            twoChildrenAdapter.bindViewData(lp.mirror, view);
+        } finally {
+            syncingMirror = false;
         }
     }
 
@@ -1299,10 +3096,86 @@ public class ScrollLayout extends ViewGroup {
         this.onChangeListener = onChangeListener;
     }
 
+    /**
+     * 记录之后收到的触摸事件
+     * @param gestureTrace null: 停止记录
+     */
+    public void setGestureTrace(GestureTrace gestureTrace) {
+        this.gestureTrace = gestureTrace;
+    }
+
+    /**
+     * 设置快速滚动时子控件截图缓存的大小
+     * 多页快速滚动时，速度超过{@link #SNAPSHOT_SPEED}(dp/s)的帧使用截图绘制子控件，
+     * 截图在帧间空闲时创建，还没有截图的帧直接绘制子控件
+     * 截图大小为{@link #getChildWdith()} * {@link #getChildHeight()} * 4，动画结束后清除
+     * {@link Adapter}模式下动画中重新绑定的子控件不使用截图
+     * @param maxBytes 缓存最大字节数，0: 不使用截图；已测量时不能小于一页截图的大小
+     */
+    public void setSnapshotCacheSize(int maxBytes) {
+        if (maxBytes < 0)
+            throw new IllegalArgumentException("maxBytes must be equals or greater than 0.");
+        if (maxBytes > 0 && maxBytes < getSnapshotByteCount())
+            throw new IllegalArgumentException("maxBytes must be equals or greater than one page snapshot: "
+                    + getSnapshotByteCount() + " bytes.");
+        //LruCache.resize需要API 21
+        clearSnapshots();
+        if (maxBytes == 0) {
+            snapshotCache = null;
+            return;
+        }
+        snapshotCache = new LruCache<View, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(View key, Bitmap value) {
+                return value.getByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, View key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue != newValue)
+                    releaseSnapshot(oldValue);
+            }
+        };
+    }
+
+    public int getSnapshotCacheSize() {
+        return snapshotCache != null ? snapshotCache.maxSize() : 0;
+    }
+
+    /**
+     * 设置性能统计回调，每次手势或动画结束时回调一次
+     * @param metricsListener null: 不统计
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+        if (metricsListener == null)
+            metricsActive = false;
+    }
+
     public IDrawChildren getiDrawChildren() {
         return iDrawChildren;
     }
 
+    public PageTransformer getPageTransformer() {
+        return pageTransformer;
+    }
+
+    /**
+     * 设置通过View属性实现的切换动画，设置后{@link IDrawChildren}不再生效
+     * @param pageTransformer null: 清除子控件属性，使用{@link IDrawChildren}
+     */
+    public void setPageTransformer(PageTransformer pageTransformer) {
+        if (this.pageTransformer == pageTransformer)
+            return;
+        this.pageTransformer = pageTransformer;
+        final int c = getChildCount();
+        for (int i = 0; i < c; i++) {
+            resetPageProperties(getChildAt(i));
+        }
+        transformPages();
+        invalidate();
+    }
+
 //end-----------public method
 
     @Override
@@ -1320,8 +3193,548 @@ public class ScrollLayout extends ViewGroup {
         return new LayoutParams(getContext(), attrs);
     }
 
+    /**
+     * 页面较多时使用的数据适配器
+     * 只创建{@link #ADAPTER_PAGE_COUNT}个子控件，滚动时将移出的子控件重新绑定为新的数据
+     * 数据个数可为任意非负数，依然循环滚动
+     * 修改数据后需调用{@link #notifyDataSetChanged()}，
+     * 或调用notifyItemXXX只重新绑定受影响的子控件，当前页保持不动
+     */
+    public static abstract class Adapter {
+        private final ArrayList<AdapterObserver> observers = new ArrayList<>();
+
+        /**
+         * @return 数据个数
+         */
+        public abstract int getItemCount();
+
+        /**
+         * 相同类型的子控件可复用
+         * @param position 数据位置
+         * @return 非负数
+         */
+        public int getItemViewType(int position) {
+            return 0;
+        }
+
+        /**
+         * 数据的唯一标识，{@link #hasStableIds()}为true时，数据变化后当前页保持显示相同id的数据
+         * @param position 数据位置
+         * @return 默认为position
+         */
+        public long getItemId(int position) {
+            return position;
+        }
+
+        /**
+         * 数据变化时相同数据的{@link #getItemId(int)}是否不变，默认false
+         * @return
+         */
+        public boolean hasStableIds() {
+            return false;
+        }
+
+        /**
+         * 创建一个子控件
+         * @param parent
+         * @param viewType {@link #getItemViewType(int)}
+         * @return 不可为null
+         */
+        public abstract View onCreateView(ScrollLayout parent, int viewType);
+
+        /**
+         * 将position的数据填充到view中，view可能是复用的子控件
+         * @param view
+         * @param position 数据位置
+         */
+        public abstract void onBindView(View view, int position);
+
+        /**
+         * 数据修改后调用，刷新当前显示的子控件
+         */
+        public final void notifyDataSetChanged() {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onChanged();
+            }
+        }
+
+        public final void notifyItemChanged(int position) {
+            notifyItemRangeChanged(position, 1);
+        }
+
+        /**
+         * [positionStart, positionStart + itemCount)的数据内容修改后调用
+         */
+        public final void notifyItemRangeChanged(int positionStart, int itemCount) {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onItemRangeChanged(positionStart, itemCount);
+            }
+        }
+
+        public final void notifyItemInserted(int position) {
+            notifyItemRangeInserted(position, 1);
+        }
+
+        /**
+         * 在positionStart处插入itemCount个数据后调用
+         */
+        public final void notifyItemRangeInserted(int positionStart, int itemCount) {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onItemRangeInserted(positionStart, itemCount);
+            }
+        }
+
+        public final void notifyItemRemoved(int position) {
+            notifyItemRangeRemoved(position, 1);
+        }
+
+        /**
+         * 删除[positionStart, positionStart + itemCount)的数据后调用
+         */
+        public final void notifyItemRangeRemoved(int positionStart, int itemCount) {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onItemRangeRemoved(positionStart, itemCount);
+            }
+        }
+
+        /**
+         * 将fromPosition的数据移到toPosition后调用
+         */
+        public final void notifyItemMoved(int fromPosition, int toPosition) {
+            for (int i = observers.size() - 1; i >= 0; i--) {
+                observers.get(i).onItemMoved(fromPosition, toPosition);
+            }
+        }
+
+        void registerObserver(AdapterObserver observer) {
+            if (!observers.contains(observer))
+                observers.add(observer);
+        }
+
+        void unregisterObserver(AdapterObserver observer) {
+            observers.remove(observer);
+        }
+    }
+
+    /**
+     * {@link Adapter}数据变化的回调
+     */
+    static abstract class AdapterObserver {
+        abstract void onChanged();
+
+        abstract void onItemRangeChanged(int positionStart, int itemCount);
+
+        abstract void onItemRangeInserted(int positionStart, int itemCount);
+
+        abstract void onItemRangeRemoved(int positionStart, int itemCount);
+
+        abstract void onItemMoved(int fromPosition, int toPosition);
+    }
+
+    /**
+     * 以List为数据的{@link Adapter}，通过{@link #submitList(List)}更新数据
+     * 按{@link #getItemKey(Object)}比较新旧数据，只通知插入、删除、移动及内容修改的数据，
+     * 当前页保持显示相同的数据，适合定时刷新的轮播
+     * @param <T>
+     */
+    public static abstract class ListAdapter<T> extends Adapter {
+        private List<T> items = Collections.emptyList();
+
+        /**
+         * 数据的唯一标识，同一数据在新旧列表中须相同
+         * @param item
+         * @return
+         */
+        public abstract long getItemKey(T item);
+
+        /**
+         * 标识相同的数据内容是否相同，不同时重新绑定
+         * @param oldItem
+         * @param newItem
+         * @return 默认通过equals比较
+         */
+        public boolean areContentsTheSame(T oldItem, T newItem) {
+            return oldItem == null ? newItem == null : oldItem.equals(newItem);
+        }
+
+        @Override
+        public int getItemCount() {
+            return items.size();
+        }
+
+        public T getItem(int position) {
+            return items.get(position);
+        }
+
+        /**
+         * @return 当前数据，不可修改
+         */
+        public List<T> getCurrentList() {
+            return Collections.unmodifiableList(items);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return getItemKey(items.get(position));
+        }
+
+        @Override
+        public boolean hasStableIds() {
+            return true;
+        }
+
+        /**
+         * 设置新数据，list会被复制
+         * 先删除新数据中没有的数据，再按新数据的顺序依次移动或插入，
+         * 每一步调用对应的notifyItemXXX，layout在下一帧统一重新绑定
+         * 旧数据的下标只计算一次，移动时通过树状数组计算当前位置，O((N + M) log M)
+         * @param list null: 清空
+         */
+        public void submitList(List<T> list) {
+            final List<T> oldItems = items;
+            final List<T> newItems = list == null ? Collections.<T>emptyList() : new ArrayList<>(list);
+            items = newItems;
+            if (oldItems.isEmpty() || newItems.isEmpty()) {
+                notifyDataSetChanged();
+                return;
+            }
+            final int newSize = newItems.size();
+            final HashSet<Long> newKeys = new HashSet<>(newSize * 2);
+            for (int i = 0; i < newSize; i++) {
+                newKeys.add(getItemKey(newItems.get(i)));
+            }
+            //删除新数据中没有的数据，从后向前通知，之前的位置不变
+            final int oldSize = oldItems.size();
+            final long[] keys = new long[oldSize];
+            final boolean[] kept = new boolean[oldSize];
+            int keptCount = 0;
+            for (int i = oldSize - 1; i >= 0; i--) {
+                keys[i] = getItemKey(oldItems.get(i));
+                kept[i] = newKeys.contains(keys[i]);
+                if (kept[i])
+                    keptCount++;
+                else
+                    notifyItemRemoved(i);
+            }
+            //保留的旧数据，及每个标识第一个未放置的下标，标识重复时依次链接
+            final ArrayList<T> work = new ArrayList<>(keptCount);
+            final long[] workKeys = new long[keptCount];
+            for (int i = 0; i < oldSize; i++) {
+                if (kept[i]) {
+                    workKeys[work.size()] = keys[i];
+                    work.add(oldItems.get(i));
+                }
+            }
+            final HashMap<Long, Integer> firstIndex = new HashMap<>(keptCount * 2);
+            final int[] nextSame = new int[keptCount];
+            for (int k = keptCount - 1; k >= 0; k--) {
+                final Integer next = firstIndex.put(workKeys[k], k);
+                nextSame[k] = next == null ? -1 : next;
+            }
+            //未放置的旧数据，放置后的数据位于[0, i)，未放置的按原顺序排在其后
+            final int[] unplaced = newUnplacedTree(keptCount);
+            int unplacedCount = keptCount;
+            for (int i = 0; i < newSize; i++) {
+                final T newItem = newItems.get(i);
+                final long key = getItemKey(newItem);
+                final Integer index = firstIndex.get(key);
+                if (index == null) {
+                    notifyItemInserted(i);
+                    continue;
+                }
+                final int k = index;
+                if (nextSame[k] < 0)
+                    firstIndex.remove(key);
+                else
+                    firstIndex.put(key, nextSame[k]);
+                final int from = i + countUnplacedBefore(unplaced, k);
+                markPlaced(unplaced, k);
+                unplacedCount--;
+                if (from != i)
+                    notifyItemMoved(from, i);
+                if (!areContentsTheSame(work.get(k), newItem))
+                    notifyItemChanged(i);
+            }
+            //旧数据中有重复的标识时剩余
+            if (unplacedCount > 0)
+                notifyItemRangeRemoved(newSize, unplacedCount);
+        }
+
+        /**
+         * 树状数组，每个旧数据初始为1(未放置)
+         */
+        private static int[] newUnplacedTree(int size) {
+            final int[] tree = new int[size + 1];
+            for (int i = 1; i <= size; i++) {
+                tree[i] += 1;
+                final int parent = i + (i & -i);
+                if (parent <= size)
+                    tree[parent] += tree[i];
+            }
+            return tree;
+        }
+
+        /**
+         * @return [0, index)中未放置的个数
+         */
+        private static int countUnplacedBefore(int[] tree, int index) {
+            int sum = 0;
+            for (int i = index; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        private static void markPlaced(int[] tree, int index) {
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i]--;
+            }
+        }
+    }
+
+    /**
+     * 性能统计回调
+     */
+    public interface MetricsListener {
+        /**
+         * 一次手势或动画(从手指开始滑动或动画开始，到动画结束)结束时调用
+         * @param parent  {@link ScrollLayout}
+         * @param metrics 复用的对象，回调结束后将被清除，如需保存请复制数据
+         */
+        void onMetrics(ScrollLayout parent, Metrics metrics);
+    }
+
+    /**
+     * 一次手势或动画的统计数据，时间单位均为ns
+     */
+    public static final class Metrics {
+        int frameCount;
+        int droppedFrames;
+        long totalFrameNanos;
+        long maxFrameNanos;
+        long drawChildrenNanos;
+        long measureNanos;
+        int measureCount;
+        long layoutNanos;
+        int layoutCount;
+        int rotationCount;
+        long totalChildrenDrawn;
+        int maxChildrenDrawn;
+        long upToChangeNanos;
+
+        Metrics() {
+            reset();
+        }
+
+        void reset() {
+            frameCount = 0;
+            droppedFrames = 0;
+            totalFrameNanos = 0;
+            maxFrameNanos = 0;
+            drawChildrenNanos = 0;
+            measureNanos = 0;
+            measureCount = 0;
+            layoutNanos = 0;
+            layoutCount = 0;
+            rotationCount = 0;
+            totalChildrenDrawn = 0;
+            maxChildrenDrawn = 0;
+            upToChangeNanos = -1;
+        }
+
+        /**
+         * @return 绘制的帧数
+         */
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        /**
+         * @return 按屏幕刷新率计算的丢帧数
+         */
+        public int getDroppedFrames() {
+            return droppedFrames;
+        }
+
+        /**
+         * @return 平均帧间隔
+         */
+        public long getAverageFrameNanos() {
+            return frameCount > 1 ? totalFrameNanos / (frameCount - 1) : 0;
+        }
+
+        /**
+         * @return 最长帧间隔
+         */
+        public long getMaxFrameNanos() {
+            return maxFrameNanos;
+        }
+
+        /**
+         * @return {@link IDrawChildren#drawChild}的总时间，没有使用{@link IDrawChildren}时为0
+         */
+        public long getDrawChildrenNanos() {
+            return drawChildrenNanos;
+        }
+
+        /**
+         * @return onMeasure总时间
+         */
+        public long getMeasureNanos() {
+            return measureNanos;
+        }
+
+        public int getMeasureCount() {
+            return measureCount;
+        }
+
+        /**
+         * @return onLayout总时间
+         */
+        public long getLayoutNanos() {
+            return layoutNanos;
+        }
+
+        public int getLayoutCount() {
+            return layoutCount;
+        }
+
+        /**
+         * @return 子控件轮转次数
+         */
+        public int getRotationCount() {
+            return rotationCount;
+        }
+
+        /**
+         * @return 每帧平均绘制的子控件个数
+         */
+        public float getAverageChildrenDrawn() {
+            return frameCount > 0 ? (float) totalChildrenDrawn / frameCount : 0;
+        }
+
+        public int getMaxChildrenDrawn() {
+            return maxChildrenDrawn;
+        }
+
+        /**
+         * @return 从手指抬起到{@link OnChangeListener#changeTo(View, int)}的时间，非手势触发时为-1
+         */
+        public long getUpToChangeNanos() {
+            return upToChangeNanos;
+        }
+    }
+
+    /**
+     * {@link Adapter}模式下子控件的缓存池，按view type缓存
+     * 可通过{@link #setRecycledPagePool(RecycledPagePool)}在多个layout之间共享
+     * 只能在主线程中使用
+     */
+    public static class RecycledPagePool {
+        private static final int DEFAULT_MAX_SCRAP = ADAPTER_PAGE_COUNT;
+
+        private final SparseArray<ArrayList<View>> scrap = new SparseArray<>();
+        private final SparseIntArray maxScrap = new SparseIntArray();
+
+        /**
+         * 设置某个view type最多缓存多少个子控件，默认{@link #ADAPTER_PAGE_COUNT}
+         * @param viewType
+         * @param max
+         */
+        public void setMaxRecycledPages(int viewType, int max) {
+            if (max < 0)
+                throw new IllegalArgumentException("max must be equals or greater than 0.");
+            maxScrap.put(viewType, max);
+            final ArrayList<View> list = scrap.get(viewType);
+            if (list != null) {
+                while (list.size() > max) {
+                    list.remove(list.size() - 1);
+                }
+            }
+        }
+
+        /**
+         * 取出一个缓存的子控件
+         * @param viewType
+         * @return 没有缓存时返回null
+         */
+        public View getRecycledPage(int viewType) {
+            final ArrayList<View> list = scrap.get(viewType);
+            if (list == null || list.isEmpty())
+                return null;
+            return list.remove(list.size() - 1);
+        }
+
+        /**
+         * 缓存一个已从父控件中移除的子控件
+         * @param page
+         */
+        public void putRecycledPage(View page) {
+            final int viewType = ((LayoutParams) page.getLayoutParams()).viewType;
+            ArrayList<View> list = scrap.get(viewType);
+            if (list == null) {
+                list = new ArrayList<>(DEFAULT_MAX_SCRAP);
+                scrap.put(viewType, list);
+            }
+            if (list.size() >= maxScrap.get(viewType, DEFAULT_MAX_SCRAP))
+                return;
+            list.add(page);
+        }
+
+        public int getRecycledPageCount(int viewType) {
+            final ArrayList<View> list = scrap.get(viewType);
+            return list == null ? 0 : list.size();
+        }
+
+        public void clear() {
+            scrap.clear();
+        }
+    }
+
     public static class LayoutParams extends MarginLayoutParams {
         private boolean startFromHere = false;
+        /**
+         * {@link Adapter}模式下子控件的类型及绑定的数据位置
+         */
+        int viewType = INVALID_VIEW_TYPE;
+        int position = -1;
+        long itemId = NO_ITEM_ID;
+        /**
+         * 数据内容修改或被删除，需要重新绑定
+         */
+        boolean itemChanged = false;
+        /**
+         * 在children环形数组中的下标，轮转时不变
+         * 非adapter模式下position为子控件在layout中的下标，克隆控件为原控件的下标
+         */
+        int slot = -1;
+        /**
+         * {@link ViewStub}是否正在后台加载
+         */
+        boolean inflating = false;
+        /**
+         * 上次测量时的参数，-1: 未测量
+         */
+        int childWidthMeasureSpec = -1;
+        int childHeightMeasureSpec = -1;
+        /**
+         * 请求了布局但不在显示范围内，延迟到滚动到附近时测量及布局
+         */
+        boolean measurePending = false;
+        /**
+         * 两个子控件时，原控件与克隆控件互相对应
+         * mirrorDirty: 需要从mirror同步状态
+         */
+        View mirror;
+        boolean mirrorDirty = false;
+        /**
+         * 由{@link TwoChildrenAdapter}克隆的控件
+         */
+        boolean cloned = false;
+        /**
+         * 本次动画中重新绑定过，不使用截图
+         */
+        boolean skipSnapshot = false;
 
         public LayoutParams(Context c, AttributeSet attrs) {
             super(c, attrs);
@@ -0,0 +1,151 @@
+package com.xfy.scrolllayout;
+
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+
+/**
+ * 框架的VelocityTracker在native中计算，添加事件不会创建Java对象，
+ * Robolectric 3.x的ShadowVelocityTracker每个事件都会创建int数组及两个Float
+ * 这里的计算与ShadowVelocityTracker相同，采样记录在预先分配的数组中
+ */
+@Implements(VelocityTracker.class)
+public class ArrayVelocityTrackerShadow {
+    private static final int ACTIVE_POINTER_ID = -1;
+    private static final int HISTORY_SIZE = 20;
+    private static final long HORIZON_MS = 200;
+    private static final long MIN_DURATION = 10;
+    /**
+     * pointer id最大为31，按位记录
+     */
+    private static final int MAX_POINTER_ID = 32;
+
+    private final long[] eventTimes = new long[HISTORY_SIZE];
+    /**
+     * 每个采样中的pointer id，0: 未记录
+     */
+    private final int[] idBits = new int[HISTORY_SIZE];
+    private final int[] activePointerIds = new int[HISTORY_SIZE];
+    private final float[][] xs = new float[HISTORY_SIZE][MAX_POINTER_ID];
+    private final float[][] ys = new float[HISTORY_SIZE][MAX_POINTER_ID];
+    private int curIndex;
+
+    private int activePointerId = ACTIVE_POINTER_ID;
+    private int velocityIdBits;
+    private final float[] velocityX = new float[MAX_POINTER_ID];
+    private final float[] velocityY = new float[MAX_POINTER_ID];
+
+    @Implementation
+    public void clear() {
+        curIndex = 0;
+        velocityIdBits = 0;
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            idBits[i] = 0;
+            activePointerIds[i] = ACTIVE_POINTER_ID;
+        }
+    }
+
+    @Implementation
+    public void addMovement(MotionEvent event) {
+        if (event == null)
+            throw new IllegalArgumentException("event must not be null");
+        if (event.getAction() == MotionEvent.ACTION_DOWN)
+            clear();
+        else if (event.getAction() != MotionEvent.ACTION_MOVE)
+            return;
+        curIndex = (curIndex + 1) % HISTORY_SIZE;
+        int bits = 0;
+        for (int i = 0; i < event.getPointerCount(); i++) {
+            final int id = event.getPointerId(i);
+            bits |= 1 << id;
+            xs[curIndex][id] = event.getX(i);
+            ys[curIndex][id] = event.getY(i);
+        }
+        idBits[curIndex] = bits;
+        activePointerIds[curIndex] = event.getPointerId(0);
+        eventTimes[curIndex] = event.getEventTime();
+    }
+
+    @Implementation
+    public void computeCurrentVelocity(int units) {
+        computeCurrentVelocity(units, Float.MAX_VALUE);
+    }
+
+    @Implementation
+    public void computeCurrentVelocity(int units, float maxVelocity) {
+        final int bits = idBits[curIndex];
+        if (bits == 0)
+            return;
+        final long minTime = eventTimes[curIndex] - HORIZON_MS;
+        for (int id = 0; id < MAX_POINTER_ID; id++) {
+            if ((bits & (1 << id)) == 0)
+                continue;
+            //在时间范围内且包含此pointer的最早的采样
+            int oldest = curIndex;
+            int count = 1;
+            do {
+                final int pre = (oldest == 0 ? HISTORY_SIZE : oldest) - 1;
+                if ((idBits[pre] & (1 << id)) == 0 || eventTimes[pre] < minTime)
+                    break;
+                oldest = pre;
+                count ++;
+            } while (count < HISTORY_SIZE);
+
+            float accumX = 0;
+            float accumY = 0;
+            long lastDuration = 0;
+            int i = oldest;
+            while (count-- > 1) {
+                if (++i == HISTORY_SIZE)
+                    i = 0;
+                final long duration = eventTimes[i] - eventTimes[oldest];
+                if (duration < MIN_DURATION)
+                    continue;
+                final float scale = 1000f / duration;
+                final float vx = (xs[i][id] - xs[oldest][id]) * scale;
+                final float vy = (ys[i][id] - ys[oldest][id]) * scale;
+                accumX = (accumX * lastDuration + vx * duration) / (duration + lastDuration);
+                accumY = (accumY * lastDuration + vy * duration) / (duration + lastDuration);
+                lastDuration = duration;
+            }
+            velocityX[id] = windowed(accumX * units / 1000, maxVelocity);
+            velocityY[id] = windowed(accumY * units / 1000, maxVelocity);
+            velocityIdBits |= 1 << id;
+        }
+        activePointerId = activePointerIds[curIndex];
+    }
+
+    @Implementation
+    public float getXVelocity() {
+        return getXVelocity(ACTIVE_POINTER_ID);
+    }
+
+    @Implementation
+    public float getYVelocity() {
+        return getYVelocity(ACTIVE_POINTER_ID);
+    }
+
+    @Implementation
+    public float getXVelocity(int id) {
+        if (id == ACTIVE_POINTER_ID)
+            id = activePointerId;
+        return hasVelocity(id) ? velocityX[id] : 0;
+    }
+
+    @Implementation
+    public float getYVelocity(int id) {
+        if (id == ACTIVE_POINTER_ID)
+            id = activePointerId;
+        return hasVelocity(id) ? velocityY[id] : 0;
+    }
+
+    private boolean hasVelocity(int id) {
+        return id >= 0 && id < MAX_POINTER_ID && (velocityIdBits & (1 << id)) != 0;
+    }
+
+    private static float windowed(float value, float max) {
+        return Math.min(max, Math.max(-max, value));
+    }
+}
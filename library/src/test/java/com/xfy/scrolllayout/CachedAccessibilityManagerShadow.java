@@ -0,0 +1,29 @@
+package com.xfy.scrolllayout;
+
+import android.content.Context;
+import android.view.accessibility.AccessibilityManager;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowAccessibilityManager;
+
+/**
+ * 框架中AccessibilityManager.getInstance返回同一个实例，
+ * Robolectric 3.x每次调用都会创建新的AccessibilityManager及服务，
+ * 而{@link android.view.View#onScrollChanged(int, int, int, int)}每次滚动都会调用，
+ * 这里按Context缓存，与框架一致
+ */
+@Implements(AccessibilityManager.class)
+public class CachedAccessibilityManagerShadow extends ShadowAccessibilityManager {
+    private static Context cachedContext;
+    private static AccessibilityManager cached;
+
+    @Implementation
+    public static AccessibilityManager getInstance(Context context) throws Exception {
+        if (cached == null || cachedContext != context) {
+            cached = ShadowAccessibilityManager.getInstance(context);
+            cachedContext = context;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,112 @@
+package com.xfy.scrolllayout;
+
+import android.view.View;
+import android.widget.Scroller;
+
+import org.junit.runners.model.InitializationError;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Implements;
+import org.robolectric.internal.SdkEnvironment;
+import org.robolectric.internal.bytecode.ClassHandler;
+import org.robolectric.internal.bytecode.Interceptors;
+import org.robolectric.internal.bytecode.Sandbox;
+import org.robolectric.internal.bytecode.ShadowMap;
+import org.robolectric.internal.bytecode.ShadowWrangler;
+import org.robolectric.shadows.ShadowView;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+
+/**
+ * Robolectric 3.x的ShadowView替换了View中滚动、绘制及手势路径上的几个方法:
+ *      scrollTo、getScrollX等通过反射回调onScrollChanged，不执行框架中的滚动及invalidate
+ *      invalidate、requestLayout、onLayout、onTouchEvent只记录状态后转调框架实现，每次调用都会创建代理对象
+ * ShadowScroller按线性插值计算位置，不使用Interpolator，每次startScroll都会post一个Runnable
+ * 此Runner让这几个方法及Scroller执行框架的实现，其余仍使用Robolectric的shadow
+ * 框架的onScrollChanged每次都会获取AccessibilityManager，Robolectric每次都创建新的实例，
+ * 因此额外使用{@link CachedAccessibilityManagerShadow}；
+ * VelocityTracker在框架中为native实现，使用不创建对象的{@link ArrayVelocityTrackerShadow}
+ *
+ * 同一进程中的测试共用沙箱，沙箱中的方法调用绑定后只在类的shadow改变时才重新绑定，
+ * 因此View及Scroller使用{@link ViewShadow}、{@link ScrollerShadow}，
+ * 与使用RobolectricTestRunner的测试交替运行时不会沿用对方的绑定
+ */
+public class FrameworkScrollTestRunner extends RobolectricTestRunner {
+
+    public FrameworkScrollTestRunner(Class<?> testClass) throws InitializationError {
+        super(testClass);
+    }
+
+    /**
+     * 不使用getExtraShadows，额外的shadow会改变沙箱的配置，
+     * 与其他测试不在同一沙箱时，Robolectric生成的代理类会引用另一个沙箱中的android类
+     */
+    @Override
+    protected ShadowMap createShadowMap() {
+        return super.createShadowMap().newBuilder()
+                .addShadowClasses(ViewShadow.class, ScrollerShadow.class,
+                        CachedAccessibilityManagerShadow.class, ArrayVelocityTrackerShadow.class)
+                .build();
+    }
+
+    @Override
+    protected ClassHandler createClassHandler(ShadowMap shadowMap, Sandbox sandbox) {
+        return new FrameworkScrollWrangler(shadowMap,
+                ((SdkEnvironment) sandbox).getSdkConfig().getApiLevel(), getInterceptors());
+    }
+
+    /**
+     * 不声明方法，其余方法仍为ShadowView的实现
+     */
+    @Implements(View.class)
+    public static class ViewShadow extends ShadowView {
+    }
+
+    /**
+     * 不声明方法，所有方法执行框架的实现
+     */
+    @Implements(Scroller.class)
+    public static class ScrollerShadow {
+    }
+
+    private static class FrameworkScrollWrangler extends ShadowWrangler {
+
+        FrameworkScrollWrangler(ShadowMap shadowMap, int apiLevel, Interceptors interceptors) {
+            super(shadowMap, apiLevel, interceptors);
+        }
+
+        @Override
+        public Plan methodInvoked(String signature, boolean isStatic, Class<?> theClass) {
+            if (!isStatic && isFrameworkMethod(theClass, signature.substring(signature.lastIndexOf('/') + 1,
+                    signature.indexOf('('))))
+                return CALL_REAL_CODE_PLAN;
+            return super.methodInvoked(signature, isStatic, theClass);
+        }
+
+        @Override
+        public MethodHandle findShadowMethod(Class<?> definingClass, String name, MethodType type,
+                                             boolean isStatic) throws IllegalAccessException {
+            if (!isStatic && isFrameworkMethod(definingClass, name))
+                return CALL_REAL_CODE;
+            return super.findShadowMethod(definingClass, name, type, isStatic);
+        }
+
+        private static boolean isFrameworkMethod(Class<?> definingClass, String name) {
+            if (!View.class.getName().equals(definingClass.getName()))
+                return false;
+            switch (name) {
+                case "scrollTo":
+                case "getScrollX":
+                case "getScrollY":
+                case "setScrollX":
+                case "setScrollY":
+                case "invalidate":
+                case "requestLayout":
+                case "onLayout":
+                case "onTouchEvent":
+                    return true;
+            }
+            return false;
+        }
+    }
+}
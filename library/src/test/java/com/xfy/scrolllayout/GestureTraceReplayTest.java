@@ -0,0 +1,169 @@
+package com.xfy.scrolllayout;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 通过{@link ReplayHarness}回放手势，检查每个事件都已分发、动画结束后停在整页及最终的currentIndex
+ *
+ * 真机记录的手势文件可放在一个目录中，通过-Dscrolllayout.traces=目录 回放其中所有的.trace文件
+ */
+@RunWith(FrameworkScrollTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class GestureTraceReplayTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int PAGE_COUNT = 5;
+
+    /**
+     * 参考手势: 向上快速滑动，由recordFling(20, 60)生成
+     */
+    private static final String FLING_TRACE = "fling.trace";
+    /**
+     * 回放{@link #FLING_TRACE}后的currentIndex及帧数，
+     * 修改滑动或动画的逻辑导致改变时，确认新的表现后再更新
+     */
+    private static final int FLING_CURRENT_INDEX = 2;
+    private static final int FLING_FRAMES = 46;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+    }
+
+    @Test
+    public void replayFling() throws IOException {
+        final GestureTrace trace = readResource(FLING_TRACE);
+        assertEquals(22, trace.size());
+
+        final ScrollLayout layout = newLayout();
+        final ReplayHarness.Report report = new ReplayHarness(layout).replay(trace);
+        assertSettled(FLING_TRACE, trace, layout, report);
+        assertEquals(FLING_CURRENT_INDEX, report.currentIndex);
+        assertEquals(FLING_FRAMES, report.frameNanos.length);
+    }
+
+    @Test
+    public void replayIsDeterministic() throws IOException {
+        final GestureTrace trace = readBack(recordFling(12, 90));
+        final ReplayHarness.Report first = new ReplayHarness(newLayout()).replay(trace);
+        final ReplayHarness.Report second = new ReplayHarness(newLayout()).replay(trace);
+        assertEquals(first.currentIndex, second.currentIndex);
+        assertEquals(first.frameNanos.length, second.frameNanos.length);
+    }
+
+    @Test
+    public void replayRecordedTraces() throws IOException {
+        final String dir = System.getProperty("scrolllayout.traces");
+        if (dir == null)
+            return;
+        final File[] files = new File(dir).listFiles();
+        if (files == null)
+            return;
+        for (File f : files) {
+            if (!f.getName().endsWith(".trace"))
+                continue;
+            final GestureTrace trace;
+            final InputStream in = new FileInputStream(f);
+            try {
+                trace = GestureTrace.read(in);
+            } finally {
+                in.close();
+            }
+            final ScrollLayout layout = newLayout();
+            assertSettled(f.getName(), trace, layout, new ReplayHarness(layout).replay(trace));
+        }
+    }
+
+    /**
+     * 每个事件都已分发，动画已结束且停在整页
+     */
+    private static void assertSettled(String name, GestureTrace trace, ScrollLayout layout,
+                                      ReplayHarness.Report report) {
+        assertEquals(name, trace.size(), report.eventNanos.length);
+        assertTrue(name + " " + report, report.finished);
+        assertEquals(name + " " + report, 0, layout.getScrollY() % HEIGHT);
+    }
+
+    private ScrollLayout newLayout() {
+        final ScrollLayout layout = new ScrollLayout(context);
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            layout.addView(new View(context),
+                    new ScrollLayout.LayoutParams(ScrollLayout.LayoutParams.MATCH_PARENT,
+                            ScrollLayout.LayoutParams.MATCH_PARENT));
+        }
+        layout.notifyAddChildViewFinish();
+        layout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        layout.layout(0, 0, WIDTH, HEIGHT);
+        return layout;
+    }
+
+    /**
+     * 向上快速滑动，每个MOVE包含一个历史采样点
+     * @param moves MOVE事件个数
+     * @param step  每个MOVE移动的距离，px
+     */
+    private static GestureTrace recordFling(int moves, int step) {
+        final GestureTrace trace = new GestureTrace();
+        final long down = SystemClock.uptimeMillis();
+        final int frame = ReplayHarness.FRAME_MILLIS;
+        final float x = WIDTH / 2;
+        float y = HEIGHT - step;
+        MotionEvent e = MotionEvent.obtain(down, down, MotionEvent.ACTION_DOWN, x, y, 0);
+        trace.add(e);
+        e.recycle();
+        for (int i = 1; i <= moves; i++) {
+            final long time = down + i * frame;
+            e = MotionEvent.obtain(down, time - frame / 2, MotionEvent.ACTION_MOVE, x, y - step / 2, 0);
+            y -= step;
+            e.addBatch(time, x, y, 1, 1, 0);
+            trace.add(e);
+            e.recycle();
+        }
+        e = MotionEvent.obtain(down, down + (moves + 1) * frame, MotionEvent.ACTION_UP, x, y, 0);
+        trace.add(e);
+        e.recycle();
+        return trace;
+    }
+
+    private static GestureTrace readResource(String name) throws IOException {
+        final InputStream in = GestureTraceReplayTest.class.getResourceAsStream(name);
+        assertNotNull(name, in);
+        try {
+            return GestureTrace.read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * 经过二进制文件格式写入再读出
+     */
+    private static GestureTrace readBack(GestureTrace trace) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.write(out);
+        return GestureTrace.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
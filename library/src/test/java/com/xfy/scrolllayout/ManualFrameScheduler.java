@@ -0,0 +1,56 @@
+package com.xfy.scrolllayout;
+
+import android.view.Choreographer;
+
+/**
+ * 手动推进的{@link FrameScheduler}，由测试决定每帧的时间
+ * 只保存提交的回调，不创建对象，不经过Robolectric的消息队列
+ */
+class ManualFrameScheduler implements FrameScheduler {
+    private Choreographer.FrameCallback frameCallback;
+    private Runnable idleAction;
+
+    @Override
+    public void postFrameCallback(Choreographer.FrameCallback callback) {
+        frameCallback = callback;
+    }
+
+    @Override
+    public void removeFrameCallback(Choreographer.FrameCallback callback) {
+        if (frameCallback == callback)
+            frameCallback = null;
+    }
+
+    @Override
+    public void postIdle(Runnable action) {
+        idleAction = action;
+    }
+
+    @Override
+    public void removeIdle(Runnable action) {
+        if (idleAction == action)
+            idleAction = null;
+    }
+
+    boolean hasPendingFrame() {
+        return frameCallback != null;
+    }
+
+    /**
+     * 执行一帧: 动画阶段的回调，及之后空闲时间里提交的任务
+     * @param frameTimeNanos 本帧开始时间
+     * @return false: 没有提交的帧
+     */
+    boolean doFrame(long frameTimeNanos) {
+        final Choreographer.FrameCallback callback = frameCallback;
+        if (callback == null)
+            return false;
+        frameCallback = null;
+        callback.doFrame(frameTimeNanos);
+        final Runnable idle = idleAction;
+        idleAction = null;
+        if (idle != null)
+            idle.run();
+        return true;
+    }
+}
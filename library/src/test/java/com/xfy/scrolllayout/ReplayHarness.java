@@ -0,0 +1,115 @@
+package com.xfy.scrolllayout;
+
+import android.os.SystemClock;
+
+import java.util.Arrays;
+
+/**
+ * 在Robolectric中回放{@link GestureTrace}
+ * 动画时钟由此类推进: 每{@link #FRAME_MILLIS}ms执行一帧，事件在记录的时间分发，
+ * 手指抬起后继续执行帧直到动画结束
+ */
+class ReplayHarness implements GestureTrace.Clock {
+    static final int FRAME_MILLIS = 16;
+    private static final int MAX_FRAMES = 3600;
+
+    private final ScrollLayout layout;
+    private final ManualFrameScheduler scheduler = new ManualFrameScheduler();
+    private long nextFrame;
+    private long[] frameNanos = new long[256];
+    private int frameCount;
+
+    ReplayHarness(ScrollLayout layout) {
+        this.layout = layout;
+        layout.setFrameScheduler(scheduler);
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return SystemClock.uptimeMillis();
+    }
+
+    @Override
+    public void advanceTo(long time) {
+        while (nextFrame <= time) {
+            setTime(nextFrame);
+            runFrame();
+            nextFrame += FRAME_MILLIS;
+        }
+        setTime(time);
+    }
+
+    /**
+     * 回放并执行完手指抬起后的动画
+     * @param trace
+     * @return 每个事件、每帧的时间、最终的{@link ScrollLayout#getCurrentIndex()}及动画是否已结束
+     */
+    Report replay(GestureTrace trace) {
+        frameCount = 0;
+        nextFrame = uptimeMillis() + FRAME_MILLIS;
+        final long[] eventNanos = trace.replay(layout, this);
+        for (int i = 0; i < MAX_FRAMES && scheduler.hasPendingFrame(); i++) {
+            advanceTo(nextFrame);
+        }
+        return new Report(eventNanos, Arrays.copyOf(frameNanos, frameCount), layout.getCurrentIndex(),
+                !scheduler.hasPendingFrame());
+    }
+
+    private void runFrame() {
+        if (!scheduler.hasPendingFrame())
+            return;
+        final long start = System.nanoTime();
+        //帧时间与prefetch()的截止时间使用同一时钟，动画时间由SystemClock推进
+        scheduler.doFrame(start);
+        if (frameCount == frameNanos.length)
+            frameNanos = Arrays.copyOf(frameNanos, frameCount << 1);
+        frameNanos[frameCount++] = System.nanoTime() - start;
+    }
+
+    private static void setTime(long time) {
+        if (time > SystemClock.uptimeMillis())
+            SystemClock.setCurrentTimeMillis(time);
+    }
+
+    static final class Report {
+        /**
+         * 每个事件分发所用的时间，单位ns
+         */
+        final long[] eventNanos;
+        /**
+         * 每帧动画阶段所用的时间，单位ns
+         */
+        final long[] frameNanos;
+        final int currentIndex;
+        /**
+         * {@link #MAX_FRAMES}帧内动画是否已结束
+         */
+        final boolean finished;
+
+        Report(long[] eventNanos, long[] frameNanos, int currentIndex, boolean finished) {
+            this.eventNanos = eventNanos;
+            this.frameNanos = frameNanos;
+            this.currentIndex = currentIndex;
+            this.finished = finished;
+        }
+
+        @Override
+        public String toString() {
+            return "events: " + summary(eventNanos)
+                    + ", frames: " + summary(frameNanos)
+                    + ", currentIndex: " + currentIndex
+                    + (finished ? "" : ", not finished");
+        }
+
+        private static String summary(long[] nanos) {
+            long total = 0;
+            long max = 0;
+            for (long n : nanos) {
+                total += n;
+                max = Math.max(max, n);
+            }
+            final long avg = nanos.length == 0 ? 0 : total / nanos.length;
+            return nanos.length + " avg " + avg + "ns max " + max + "ns";
+        }
+    }
+}
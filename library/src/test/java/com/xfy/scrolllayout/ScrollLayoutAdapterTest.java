@@ -0,0 +1,103 @@
+package com.xfy.scrolllayout;
+
+import android.content.Context;
+import android.graphics.Paint;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Adapter模式下数据改变时子控件的替换及回收
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScrollLayoutAdapterTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int ITEM_COUNT = 10;
+
+    private Context context;
+    private ScrollLayout layout;
+    private int viewType;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        layout = new ScrollLayout(context);
+        layout.setAdapter(new ScrollLayout.Adapter() {
+            @Override
+            public int getItemCount() {
+                return ITEM_COUNT;
+            }
+
+            @Override
+            public int getItemViewType(int position) {
+                return viewType;
+            }
+
+            @Override
+            public View onCreateView(ScrollLayout parent, int viewType) {
+                return new LayerPage(parent.getContext());
+            }
+
+            @Override
+            public void onBindView(View view, int position) {
+            }
+        });
+        layout.setFrameScheduler(new ManualFrameScheduler());
+        layout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        layout.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    @Test
+    public void replacedPagesLeaveHardwareLayer() {
+        layout.setUseHardwareLayer(true);
+        //动画开始时当前页及前后两页开启硬件层
+        layout.toNext(true);
+
+        final List<View> layered = new ArrayList<>();
+        for (int i = 0; i < layout.getChildCount(); i++) {
+            final View page = layout.getChildAt(i);
+            if (((LayerPage) page).layerType == View.LAYER_TYPE_HARDWARE)
+                layered.add(page);
+        }
+        assertTrue(!layered.isEmpty());
+
+        //动画结束前所有数据的view type改变，子控件全部被替换并放入缓存
+        viewType = 1;
+        layout.getAdapter().notifyDataSetChanged();
+        for (View page : layered) {
+            assertTrue(page.getParent() == null);
+            assertEquals(View.LAYER_TYPE_NONE, ((LayerPage) page).layerType);
+        }
+    }
+
+    /**
+     * Robolectric中RenderNode为空实现，{@link View#getLayerType()}不会改变，这里记录设置的layer type
+     */
+    private static class LayerPage extends View {
+        int layerType = LAYER_TYPE_NONE;
+
+        LayerPage(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void setLayerType(int layerType, Paint paint) {
+            super.setLayerType(layerType, paint);
+            this.layerType = layerType;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.xfy.scrolllayout;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 手势及滚动动画中每个MOVE事件及每帧都不能创建对象
+ * 按下及抬起每个手势只有一次，不统计
+ *
+ * 帧由{@link ManualFrameScheduler}直接执行，不经过Robolectric的Choreographer及消息队列，
+ * 每个场景先执行一遍预热(首次测量、加载类等)，再统计第二遍中每次调用前后当前线程分配的字节数
+ * 通过{@link FrameworkScrollTestRunner}，滚动、invalidate及Scroller执行框架的实现
+ */
+@RunWith(FrameworkScrollTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScrollLayoutAllocationTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int FRAME_MILLIS = 16;
+    private static final int MAX_FRAMES = 600;
+    private static final int DRAG_STEP = 40;
+    private static final int PAGE_COUNT = 5;
+    private static final int ITEM_COUNT = 100;
+
+    private final com.sun.management.ThreadMXBean threadBean
+            = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private long threadId;
+    /**
+     * 两次读取分配字节数之间，读取本身的分配
+     */
+    private long overhead;
+
+    private Context context;
+    private ManualFrameScheduler scheduler;
+    private ScrollLayout layout;
+
+    @Before
+    public void setUp() {
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        threadId = Thread.currentThread().getId();
+        overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 16; i++) {
+            final long before = allocatedBytes();
+            overhead = Math.min(overhead, allocatedBytes() - before);
+        }
+        context = RuntimeEnvironment.application;
+        scheduler = new ManualFrameScheduler();
+    }
+
+    @Test
+    public void dragAndFlingChildren() {
+        setUpChildren(ScrollLayout.VERTICAL);
+        dragAndFling(false, 1);
+        dragAndFling(true, 1);
+        dragAndFling(true, -1);
+    }
+
+    @Test
+    public void dragAndFlingHorizontal() {
+        setUpChildren(ScrollLayout.HORIZONTAL);
+        dragAndFling(false, 1);
+        dragAndFling(true, 1);
+        dragAndFling(true, -1);
+    }
+
+    @Test
+    public void dragAndFlingAdapter() {
+        setUpAdapter();
+        dragAndFling(false, 1);
+        dragAndFling(true, 1);
+        dragAndFling(true, -1);
+    }
+
+    @Test
+    public void navigateChildren() {
+        setUpChildren(ScrollLayout.VERTICAL);
+        navigate(false, 3);
+        navigate(true, 3);
+    }
+
+    @Test
+    public void navigateAdapter() {
+        setUpAdapter();
+        navigate(false, ITEM_COUNT / 2);
+        navigate(true, ITEM_COUNT / 2);
+    }
+
+    @Test
+    public void retargetRunningAnimation() {
+        setUpAdapter();
+        for (int pass = 0; pass < 2; pass++) {
+            final boolean measure = pass == 1;
+            layout.toNext(true);
+            runFrames(measure, "toNext", 3);
+            call(measure, "toNext retarget", Call.TO_NEXT);
+            runFrames(measure, "toNext retarget", 3);
+            call(measure, "toPre retarget", Call.TO_PRE);
+            runFrames(measure, "toPre retarget", MAX_FRAMES);
+        }
+        assertFalse(scheduler.hasPendingFrame());
+    }
+
+    private void setUpChildren(int orientation) {
+        layout = new ScrollLayout(context);
+        layout.setScrollOrientation(orientation);
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            layout.addView(new View(context),
+                    new ScrollLayout.LayoutParams(ScrollLayout.LayoutParams.MATCH_PARENT,
+                            ScrollLayout.LayoutParams.MATCH_PARENT));
+        }
+        layout.notifyAddChildViewFinish();
+        layoutAndAttachScheduler();
+    }
+
+    private void setUpAdapter() {
+        layout = new ScrollLayout(context);
+        layout.setAdapter(new ScrollLayout.Adapter() {
+            @Override
+            public int getItemCount() {
+                return ITEM_COUNT;
+            }
+
+            @Override
+            public View onCreateView(ScrollLayout parent, int viewType) {
+                return new View(parent.getContext());
+            }
+
+            @Override
+            public void onBindView(View view, int position) {
+                view.setAlpha(position % 2 == 0 ? 1 : 0.5f);
+            }
+        });
+        layoutAndAttachScheduler();
+    }
+
+    private void layoutAndAttachScheduler() {
+        layout.setFrameScheduler(scheduler);
+        layout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        layout.layout(0, 0, WIDTH, HEIGHT);
+    }
+
+    /**
+     * 拖动超过两页后抬起
+     * @param measure   是否统计
+     * @param direction 1: 向后，-1: 向前
+     */
+    private void dragAndFling(boolean measure, int direction) {
+        final boolean vertical = layout.getScrollOrientation() == ScrollLayout.VERTICAL;
+        final int distance = 2 * (vertical ? HEIGHT : WIDTH) + DRAG_STEP;
+        final int steps = distance / DRAG_STEP;
+        //事件在统计前创建
+        final MotionEvent[] events = new MotionEvent[steps + 2];
+        final long downTime = SystemClock.uptimeMillis();
+        float x = WIDTH / 2;
+        float y = HEIGHT / 2;
+        events[0] = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, x, y, 0);
+        for (int i = 1; i <= steps; i++) {
+            if (vertical)
+                y -= direction * DRAG_STEP;
+            else
+                x -= direction * DRAG_STEP;
+            events[i] = MotionEvent.obtain(downTime, downTime + i * FRAME_MILLIS, MotionEvent.ACTION_MOVE, x, y, 0);
+        }
+        events[steps + 1] = MotionEvent.obtain(downTime, downTime + (steps + 1) * FRAME_MILLIS,
+                MotionEvent.ACTION_UP, x, y, 0);
+
+        layout.dispatchTouchEvent(events[0]);
+        for (int i = 1; i <= steps; i++) {
+            advanceClock();
+            final long before = allocatedBytes();
+            layout.dispatchTouchEvent(events[i]);
+            check(measure, before, "drag move", i);
+            runFrame(measure, "drag", i);
+        }
+        advanceClock();
+        layout.dispatchTouchEvent(events[steps + 1]);
+        runFrames(measure, "fling", MAX_FRAMES);
+        assertFalse(scheduler.hasPendingFrame());
+        for (MotionEvent e : events) {
+            e.recycle();
+        }
+    }
+
+    /**
+     * toNext, toPre, gotoChild及之后的动画
+     * @param measure 是否统计
+     * @param far     gotoChild的目标
+     */
+    private void navigate(boolean measure, int far) {
+        call(measure, "toNext", Call.TO_NEXT);
+        runFrames(measure, "toNext", MAX_FRAMES);
+        call(measure, "toPre", Call.TO_PRE);
+        runFrames(measure, "toPre", MAX_FRAMES);
+        gotoChild(measure, far);
+        runFrames(measure, "gotoChild", MAX_FRAMES);
+        gotoChild(measure, 0);
+        runFrames(measure, "gotoChild", MAX_FRAMES);
+        assertEquals(0, layout.getCurrentPosition());
+    }
+
+    private enum Call {
+        TO_NEXT, TO_PRE
+    }
+
+    private void call(boolean measure, String name, Call call) {
+        final long before = allocatedBytes();
+        if (call == Call.TO_NEXT)
+            layout.toNext(true);
+        else
+            layout.toPre(true);
+        check(measure, before, name, 0);
+    }
+
+    private void gotoChild(boolean measure, int index) {
+        final long before = allocatedBytes();
+        layout.gotoChild(index, true);
+        check(measure, before, "gotoChild", index);
+    }
+
+    private void runFrames(boolean measure, String name, int maxFrames) {
+        for (int i = 0; i < maxFrames && scheduler.hasPendingFrame(); i++) {
+            advanceClock();
+            runFrame(measure, name, i);
+        }
+    }
+
+    private void runFrame(boolean measure, String name, int frame) {
+        //名称在统计前拼接
+        final String frameName = name + " frame";
+        //与prefetch()的截止时间使用同一时钟
+        final long frameTimeNanos = System.nanoTime();
+        final long before = allocatedBytes();
+        scheduler.doFrame(frameTimeNanos);
+        check(measure, before, frameName, frame);
+    }
+
+    private void check(boolean measure, long before, String name, int index) {
+        final long bytes = allocatedBytes() - before - overhead;
+        if (measure && bytes > 0)
+            fail(name + " " + index + " allocated " + bytes + " bytes");
+    }
+
+    private long allocatedBytes() {
+        return threadBean.getThreadAllocatedBytes(threadId);
+    }
+
+    private static void advanceClock() {
+        SystemClock.setCurrentTimeMillis(SystemClock.uptimeMillis() + FRAME_MILLIS);
+    }
+}
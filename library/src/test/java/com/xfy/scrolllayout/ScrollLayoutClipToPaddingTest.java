@@ -0,0 +1,95 @@
+package com.xfy.scrolllayout;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.util.AttributeSet;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * xml中的android:clipToPadding在ViewGroup构造函数中设置，需在绘制时生效
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ScrollLayoutClipToPaddingTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 1920;
+    private static final int PADDING = 10;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+    }
+
+    @Test
+    public void clipToPaddingByDefault() {
+        final ScrollLayout layout = newLayout(null);
+        assertEquals(1, drawAndCountPaddingClips(layout));
+    }
+
+    @Test
+    public void clipToPaddingFalseFromXml() {
+        final AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(android.R.attr.clipToPadding, "false")
+                .build();
+        final ScrollLayout layout = newLayout(attrs);
+        assertEquals(0, drawAndCountPaddingClips(layout));
+    }
+
+    @Test
+    public void setClipToPaddingAfterInflate() {
+        final AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(android.R.attr.clipToPadding, "false")
+                .build();
+        final ScrollLayout layout = newLayout(attrs);
+        layout.setClipToPadding(true);
+        assertEquals(1, drawAndCountPaddingClips(layout));
+    }
+
+    private ScrollLayout newLayout(AttributeSet attrs) {
+        final ScrollLayout layout = new ScrollLayout(context, attrs);
+        layout.setPadding(PADDING, PADDING, PADDING, PADDING);
+        for (int i = 0; i < 3; i++) {
+            layout.addView(new View(context),
+                    new ScrollLayout.LayoutParams(ScrollLayout.LayoutParams.MATCH_PARENT,
+                            ScrollLayout.LayoutParams.MATCH_PARENT));
+        }
+        layout.notifyAddChildViewFinish();
+        layout.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        layout.layout(0, 0, WIDTH, HEIGHT);
+        return layout;
+    }
+
+    /**
+     * @return 绘制子控件时按padding裁剪的次数
+     */
+    private static int drawAndCountPaddingClips(ScrollLayout layout) {
+        final int sx = layout.getScrollX();
+        final int sy = layout.getScrollY();
+        final int[] clips = new int[1];
+        final Canvas canvas = new Canvas() {
+            @Override
+            public boolean clipRect(int left, int top, int right, int bottom) {
+                if (left == sx + PADDING && top == sy + PADDING
+                        && right == sx + WIDTH - PADDING && bottom == sy + HEIGHT - PADDING)
+                    clips[0]++;
+                return super.clipRect(left, top, right, bottom);
+            }
+        };
+        //Robolectric的View.draw只绘制背景，直接调用dispatchDraw
+        layout.dispatchDraw(canvas);
+        return clips[0];
+    }
+}
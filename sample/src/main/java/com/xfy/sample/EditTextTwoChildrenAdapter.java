@@ -2,6 +2,7 @@ package com.xfy.sample;
 
 import android.support.annotation.NonNull;
 import android.text.Editable;
+import android.text.TextUtils;
 import android.text.TextWatcher;
 import android.widget.EditText;
 
@@ -13,8 +14,6 @@ import com.xfy.scrolllayout.ScrollLayout;
  */
 public class EditTextTwoChildrenAdapter extends BaseTwoChildrenAdapter<EditText> {
 
-    private boolean changed = true;
-
     @Override
     public @NonNull EditText cloneFirstView(ScrollLayout parent, EditText first) {
         EditText text = super.cloneFirstView(parent, first);
@@ -33,6 +32,9 @@ public class EditTextTwoChildrenAdapter extends BaseTwoChildrenAdapter<EditText>
 
     @Override
     public void bindViewData(EditText res, EditText newView) {
+        //内容相同时不设置，防止两个控件互相同步
+        if (TextUtils.equals(res.getText(), newView.getText()))
+            return;
         newView.setText(res.getText().toString());
     }
 
@@ -56,12 +58,7 @@ public class EditTextTwoChildrenAdapter extends BaseTwoChildrenAdapter<EditText>
 
         @Override
         public void afterTextChanged(Editable s) {
-            if (changed) {
-                changed = false;
-                scrollLayout.notifyViewChanged(view);
-            } else {
-                changed = true;
-            }
+            scrollLayout.notifyViewChanged(view);
         }
     }
 }